@@ -0,0 +1,193 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Customer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Deterministic data sets for the benchmarks.
+ * <p>
+ * CSV files are generated once per size under {@code target/jmh-data} and reused by later runs.
+ * Values are built from a fixed seed, so the same row index always yields the same record, and
+ * dates are placed a few weeks ahead of today so that they pass validation.
+ */
+final class BenchmarkData {
+    /** Upper bound for in-memory value pools; larger row counts cycle through the pool. */
+    static final int POOL_SIZE = 1 << 20;
+
+    private static final Path DIR = Path.of("target", "jmh-data");
+    private static final long SEED = 42;
+    private static final String[] AIRPORTS = {"JFK", "LAX", "ORD", "ATL", "DFW", "DEN", "SFO", "SEA", "MIA", "BOS"};
+
+    private BenchmarkData() {
+    }
+
+    static Path customersFile(int rows) {
+        return file("customers", rows, "id,firstName,lastName,email,phoneNo,address", BenchmarkData::customerRow);
+    }
+
+    static Path routesFile(int rows) {
+        return file("routes", rows, "id,name", (random, i) -> uuid(random) + "," + routeName(i));
+    }
+
+    /**
+     * @param rows The number of routes in the file.
+     * @param count The number of IDs to return.
+     * @return IDs of the first routes in {@link #routesFile(int)}, in file order.
+     */
+    static String[] routeIds(int rows, int count) {
+        Random random = new Random(SEED);
+        String[] ids = new String[Math.min(rows, count)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = uuid(random);
+        }
+        return ids;
+    }
+
+    static List<Customer> customers(int rows) {
+        Random random = new Random(SEED);
+        List<Customer> customers = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            customers.add(new Customer(uuid(random), "First" + i, "Last" + i, email(i), phone(i), address(i)));
+        }
+        return customers;
+    }
+
+    static String[] uuids(int count) {
+        Random random = new Random(SEED);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = uuid(random);
+        }
+        return values;
+    }
+
+    static String[] values(int count, IntFunction<String> generator) {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = generator.apply(i);
+        }
+        return values;
+    }
+
+    static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+
+    static String phone(int i) {
+        return String.format("555%07d", i % 10_000_000);
+    }
+
+    static String address(int i) {
+        return i + " Main Street";
+    }
+
+    static String flightNo(int i) {
+        return "AA" + (100 + i % 9000);
+    }
+
+    static String airport(int i) {
+        return AIRPORTS[i % AIRPORTS.length];
+    }
+
+    static String routeName(int i) {
+        return airport(i) + "-" + airport(i + 1);
+    }
+
+    static String date(int i) {
+        return LocalDate.now().plusDays(30 + i % 300).format(Validator.DATE_FORMATTER);
+    }
+
+    static String dateTime(int i) {
+        return LocalDateTime.now().withSecond(0).withNano(0).plusDays(30 + i % 300).plusMinutes(i % 1440)
+                .format(Validator.DATETIME_FORMATTER);
+    }
+
+    /**
+     * @return A console that prints nothing, so output does not distort the measurements.
+     */
+    static ConsoleUI quietConsole() {
+        // Progress is drawn by the shared sink, so it is switched off there
+        OutputSink.getInstance().setLevel(OutputSink.Level.QUIET);
+        return new ConsoleUI(new Scanner(InputStream.nullInputStream())) {
+            @Override
+            public void showSectionHeader(String title) {
+            }
+
+            @Override
+            public void showStatus(String message) {
+            }
+
+            @Override
+            public void showEntity(Object entity) {
+            }
+
+            @Override
+            public void showRejected(String message) {
+            }
+
+            @Override
+            public void showSuccess(String message) {
+            }
+
+            @Override
+            public void showWarning(String message) {
+            }
+
+            @Override
+            public void showError(String message) {
+            }
+        };
+    }
+
+    private static String customerRow(Random random, int i) {
+        return uuid(random) + ",First" + i + ",Last" + i + "," + email(i) + "," + phone(i) + "," + address(i);
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private interface RowGenerator {
+        String row(Random random, int index);
+    }
+
+    private static Path file(String kind, int rows, String header, RowGenerator generator) {
+        Path file = DIR.resolve(kind + "_" + rows + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        try {
+            Files.createDirectories(DIR);
+            Path temp = Files.createTempFile(DIR, kind, ".tmp");
+            Random random = new Random(SEED);
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(header);
+                writer.write('\n');
+                for (int i = 0; i < rows; i++) {
+                    writer.write(generator.row(random, i));
+                    writer.write('\n');
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot generate " + file, e);
+        }
+    }
+}
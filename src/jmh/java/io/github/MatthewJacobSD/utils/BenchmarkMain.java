@@ -0,0 +1,28 @@
+package io.github.MatthewJacobSD.utils;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code target/benchmarks.jar}. Accepts the usual JMH command line and always
+ * adds the GC profiler, so every result comes with allocation rate and GC counts.
+ * <p>
+ * Examples: {@code java -jar target/benchmarks.jar -p rows=1000,1000000} or
+ * {@code java -jar target/benchmarks.jar ValidatorBenchmark}. The 10M-row data sets need
+ * several GB of heap for the CSV parse and export benchmarks ({@code -jvmArgsAppend -Xmx12g}).
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
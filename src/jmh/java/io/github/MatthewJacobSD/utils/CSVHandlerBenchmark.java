@@ -0,0 +1,78 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Customer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing and export of customer rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CSVHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Content {
+        @Param({"1000", "1000000", "10000000"})
+        int rows;
+        String csv;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            csv = Files.readString(BenchmarkData.customersFile(rows));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Objects {
+        @Param({"1000", "1000000", "10000000"})
+        int rows;
+        List<Customer> customers;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            customers = BenchmarkData.customers(rows);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lines {
+        @Param({"1000", "1000000", "10000000"})
+        int rows;
+        String[] lines;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            // At most POOL_SIZE distinct lines are kept; larger sizes cycle through them
+            try (var stream = Files.lines(BenchmarkData.customersFile(Math.min(rows, BenchmarkData.POOL_SIZE)))) {
+                lines = stream.skip(1).toArray(String[]::new);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Customer> fromCSV(Content content) {
+        return CSVHandler.fromCSV(content.csv, Customer.class, null);
+    }
+
+    @Benchmark
+    public String toCSV(Objects objects) {
+        return CSVHandler.toCSV(objects.customers);
+    }
+
+    @Benchmark
+    public void parseCSVLine(Lines lines, Blackhole blackhole) {
+        String[] pool = lines.lines;
+        for (int i = 0; i < lines.rows; i++) {
+            blackhole.consume(CSVHandler.parseCSVLine(pool[i % pool.length]));
+        }
+    }
+}
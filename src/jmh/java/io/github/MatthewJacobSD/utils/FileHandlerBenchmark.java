@@ -0,0 +1,33 @@
+package io.github.MatthewJacobSD.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file reads of a customers CSV.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileHandlerBenchmark {
+    @Param({"1000", "1000000", "10000000"})
+    int rows;
+
+    private FileHandler fileHandler;
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fileHandler = new FileHandler(BenchmarkData.quietConsole());
+        path = BenchmarkData.customersFile(rows).toString();
+    }
+
+    @Benchmark
+    public String readFile() {
+        return fileHandler.readFile(path);
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.MatthewJacobSD.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single reference lookups against a routes file of {@code rows} entries, alternating between
+ * IDs that exist and IDs that don't. The file is loaded once during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReferenceBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "1000000", "10000000"})
+    int rows;
+
+    private ReferenceValidator validator;
+    private String[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String path = BenchmarkData.routesFile(rows).toString();
+        validator = new ReferenceValidator(BenchmarkData.quietConsole(), Map.of("routes", path));
+
+        String[] present = BenchmarkData.routeIds(rows, LOOKUPS / 2);
+        ids = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = i % 2 == 0 ? present[(i / 2) % present.length] : UUID.randomUUID().toString();
+        }
+        if (!validator.validateReference("routes", present[0])) {
+            throw new IllegalStateException("Route " + present[0] + " not found in " + path);
+        }
+    }
+
+    @Benchmark
+    public boolean validateReference() {
+        String id = ids[next];
+        next = (next + 1) & (LOOKUPS - 1);
+        return validator.validateReference("routes", id);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.MatthewJacobSD.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Every {@link Validator} method over one column of valid values.
+ * Each invocation validates {@code rows} values, cycling through at most
+ * {@link BenchmarkData#POOL_SIZE} distinct ones, and returns the number of errors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+    @Param({"1000", "1000000", "10000000"})
+    int rows;
+
+    @Param({"uuid", "nonEmpty", "email", "phone", "date", "dateTime", "flightNumber", "airportCode", "routeName"})
+    String field;
+
+    private String[] values;
+    private Function<String, String> validator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int pool = Math.min(rows, BenchmarkData.POOL_SIZE);
+        values = switch (field) {
+            case "uuid" -> BenchmarkData.uuids(pool);
+            case "nonEmpty" -> BenchmarkData.values(pool, BenchmarkData::address);
+            case "email" -> BenchmarkData.values(pool, BenchmarkData::email);
+            case "phone" -> BenchmarkData.values(pool, BenchmarkData::phone);
+            case "date" -> BenchmarkData.values(pool, BenchmarkData::date);
+            case "dateTime" -> BenchmarkData.values(pool, BenchmarkData::dateTime);
+            case "flightNumber" -> BenchmarkData.values(pool, BenchmarkData::flightNo);
+            case "airportCode" -> BenchmarkData.values(pool, BenchmarkData::airport);
+            case "routeName" -> BenchmarkData.values(pool, BenchmarkData::routeName);
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
+        };
+        validator = switch (field) {
+            case "uuid" -> Validator::validateUUID;
+            case "nonEmpty" -> value -> Validator.validateNonEmpty(value, "Address");
+            case "email" -> Validator::validateEmail;
+            case "phone" -> Validator::validatePhone;
+            case "date" -> value -> Validator.validateDate(value, "Booking date");
+            case "dateTime" -> value -> Validator.validateDateTime(value, "Departure time");
+            case "flightNumber" -> Validator::validateFlightNumber;
+            case "airportCode" -> value -> Validator.validateAirportCode(value, "Departure airport");
+            case "routeName" -> Validator::validateRouteName;
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
+        };
+        if (validator.apply(values[0]) != null) {
+            throw new IllegalStateException("Benchmark data is not valid for " + field + ": " + values[0]);
+        }
+    }
+
+    @Benchmark
+    public int validate() {
+        int errors = 0;
+        for (int i = 0; i < rows; i++) {
+            if (validator.apply(values[i % values.length]) != null) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+}
@@ -1,10 +1,64 @@
 package io.github.MatthewJacobSD;
 
 import io.github.MatthewJacobSD.utils.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Scanner;
 
 public class AirlineOnlineBookingSystem {
+    private static final int DEFAULT_PORT = 8080;
+    private static final Duration METRICS_INTERVAL = Duration.ofSeconds(10);
+
     public static void main(String[] args) {
+        String batchIn = null;
+        String batchOut = null;
+        Integer servePort = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--snapshots")) {
+                Snapshot.setEnabled(true);
+            } else if (args[i].equals("--output")) {
+                OutputSink.Level level = i + 1 < args.length ? outputLevel(args[++i]) : null;
+                if (level == null) {
+                    System.err.println("❌ Usage: --output <quiet|summary|verbose>");
+                    System.exit(2);
+                }
+                OutputSink.getInstance().setLevel(level);
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                reportMetrics(Path.of(args[++i]));
+            } else if (args[i].equals("--metrics")) {
+                System.err.println("❌ Usage: --metrics <metrics.json>");
+                System.exit(2);
+            } else if (args[i].equals("--serve")) {
+                servePort = DEFAULT_PORT;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    try {
+                        servePort = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        System.err.println("❌ Usage: --serve [port]");
+                        System.exit(2);
+                    }
+                }
+            } else if (args[i].equals("--batch") && i + 2 < args.length) {
+                batchIn = args[++i];
+                batchOut = args[++i];
+            } else if (args[i].equals("--batch")) {
+                System.err.println("❌ Usage: --batch <commands.jsonl|-> <results.jsonl|->");
+                System.exit(2);
+            }
+        }
+
+        if (batchIn != null) {
+            System.exit(runBatch(batchIn, batchOut));
+        }
+        if (servePort != null) {
+            // The server exposes GET /metrics, so it always records them
+            Metrics.setEnabled(true);
+            System.exit(serve(servePort));
+        }
+
         Scanner scanner = new Scanner(System.in);
         ConsoleUI consoleUI = new ConsoleUI(scanner);
         FileHandler fileHandler = new FileHandler(consoleUI);
@@ -15,6 +69,7 @@ public class AirlineOnlineBookingSystem {
             int choice = consoleUI.getUserChoice();
 
             if (choice == 5) {
+                router.shutdown();
                 consoleUI.printExitMessage();
                 scanner.close();
                 break;
@@ -22,4 +77,72 @@ public class AirlineOnlineBookingSystem {
             router.route(choice);
         }
     }
-}
\ No newline at end of file
+
+    // Turns metrics on and writes them to a file periodically and on exit
+    private static void reportMetrics(Path file) {
+        Metrics.setEnabled(true);
+        Metrics.getInstance().startReporting(file, METRICS_INTERVAL);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Metrics.getInstance().writeTo(file);
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("❌ Error writing metrics to " + file + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    // Parses an output level name such as "summary"; null if unknown
+    private static OutputSink.Level outputLevel(String name) {
+        for (OutputSink.Level level : OutputSink.Level.values()) {
+            if (level.name().equalsIgnoreCase(name)) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    // Serves the HTTP API until the process is stopped; returns the exit code if it cannot start
+    private static int serve(int port) {
+        ApiServer server;
+        try {
+            server = ApiServer.start(port);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("❌ Could not start HTTP API: " + e.getMessage());
+            return 2;
+        }
+        // Journaled bookings are checkpointed on Ctrl+C
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("✅ Serving HTTP API on http://localhost:" + server.getPort() + "/ (Ctrl+C to stop)");
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    // Runs JSONL commands without prompts; "-" reads stdin or writes stdout. Returns the exit code.
+    private static int runBatch(String inPath, String outPath) {
+        // Nothing may block on keyboard input in batch mode
+        Scanner scanner = new Scanner(InputStream.nullInputStream());
+        ConsoleUI consoleUI = new ConsoleUI(scanner);
+        BatchProcessor processor = new BatchProcessor(scanner, new FileHandler(consoleUI), consoleUI);
+
+        try (BufferedReader in = new BufferedReader(inPath.equals("-")
+                     ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                     : new FileReader(inPath, StandardCharsets.UTF_8), 64 * 1024);
+             Writer out = new BufferedWriter(outPath.equals("-")
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : new FileWriter(outPath, StandardCharsets.UTF_8), 64 * 1024)) {
+            long start = System.nanoTime();
+            processor.run(in, out);
+            System.err.printf("✅ Processed %d commands in %.1fs: %d succeeded, %d failed%n",
+                    processor.getSucceeded() + processor.getFailed(), (System.nanoTime() - start) / 1e9,
+                    processor.getSucceeded(), processor.getFailed());
+            return processor.getFailed() > 0 ? 1 : 0;
+        } catch (IOException e) {
+            System.err.println("❌ Batch run failed: " + e.getMessage());
+            return 2;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
 public class Booking {
+    private static final DateTimeFormatter TO_STRING_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
     // private fields
     private String id;
     private LocalDate date;
@@ -42,9 +44,8 @@ public class Booking {
      */
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        return String.format("Booking \n{\nid: %s,\n date: %s,\n customerId: %s,\n flightId: %s\n}",
-                id, date.format(formatter), customerId, flightId);
+        return "Booking \n{\nid: " + id + ",\n date: " + (date != null ? TO_STRING_FORMATTER.format(date) : "null")
+                + ",\n customerId: " + customerId + ",\n flightId: " + flightId + "\n}";
     }
 
     /**
@@ -54,9 +54,8 @@ public class Customer {
     // output method - terminal view
     @Override
     public String toString() {
-        return String.format(
-                "Customer \n{\nid: %s,\n firstName: %s,\n lastName: %s,\n email: %s,\n phoneNo: %s,\n address: %s\n}",
-                id, firstName, lastName, email, phoneNo, address);
+        return "Customer \n{\nid: " + id + ",\n firstName: " + firstName + ",\n lastName: " + lastName
+                + ",\n email: " + email + ",\n phoneNo: " + phoneNo + ",\n address: " + address + "\n}";
     }
 
     /**
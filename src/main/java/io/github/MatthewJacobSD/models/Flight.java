@@ -5,6 +5,12 @@ import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
 public class Flight {
+    // seats per flight when a file or command does not give a capacity
+    public static final int DEFAULT_CAPACITY = 180;
+    public static final int MAX_CAPACITY = 1000;
+    // formatters are immutable, so toString does not build one per call
+    private static final DateTimeFormatter TO_STRING_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     // private fields
     private String id;
     private String flightNo;
@@ -13,6 +19,7 @@ public class Flight {
     private LocalDateTime depTime;
     private LocalDateTime arrTime;
     private String routeId;
+    private int capacity = DEFAULT_CAPACITY;
 
     // default constructor
     public Flight() {}
@@ -29,6 +36,12 @@ public class Flight {
         this.routeId = routeId;
     }
 
+    public Flight(String id, String flightNo, String depAirport, String arrAirport,
+                  LocalDateTime depTime, LocalDateTime arrTime, String routeId, int capacity) {
+        this(id, flightNo, depAirport, arrAirport, depTime, arrTime, routeId);
+        this.capacity = capacity;
+    }
+
     // getters
     public String getId() { return id; }
     public String getFlightNo() { return flightNo; }
@@ -37,6 +50,7 @@ public class Flight {
     public LocalDateTime getDepTime() { return depTime; }
     public LocalDateTime getArrTime() { return arrTime; }
     public String getRouteId() { return routeId; }
+    public int getCapacity() { return capacity; }
 
     // setters
     public void setFlightNo(String flightNo) { this.flightNo = flightNo; }
@@ -45,6 +59,7 @@ public class Flight {
     public void setDepTime(LocalDateTime depTime) { this.depTime = depTime; }
     public void setArrTime(LocalDateTime arrTime) { this.arrTime = arrTime; }
     public void setRouteId(String routeId) { this.routeId = routeId; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
 
     /**
      * Converts a flight object into a human-readable string.
@@ -55,13 +70,11 @@ public class Flight {
      */
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return String.format(
-                "Flight \n{\nid: %s,\n flightNo: %s,\n depAirport: %s,\n arrAirport: %s,\n depTime: %s,\n arrTime: %s,\n routeId: %s}\n",
-                id, flightNo, depAirport, arrAirport,
-                depTime != null ? depTime.format(formatter) : "null",
-                arrTime != null ? arrTime.format(formatter) : "null",
-                routeId);
+        return "Flight \n{\nid: " + id + ",\n flightNo: " + flightNo + ",\n depAirport: " + depAirport
+                + ",\n arrAirport: " + arrAirport
+                + ",\n depTime: " + (depTime != null ? TO_STRING_FORMATTER.format(depTime) : "null")
+                + ",\n arrTime: " + (arrTime != null ? TO_STRING_FORMATTER.format(arrTime) : "null")
+                + ",\n routeId: " + routeId + ",\n capacity: " + capacity + "}\n";
     }
 
     /**
@@ -33,7 +33,7 @@ public class Route {
     // output method
     @Override
     public String toString() {
-        return String.format("Route \n{\nid: %s,\n name: %s\n}\n", id, name);
+        return "Route \n{\nid: " + id + ",\n name: " + name + "\n}\n";
     }
 
     /**
@@ -4,14 +4,29 @@ import io.github.MatthewJacobSD.models.Booking;
 import io.github.MatthewJacobSD.models.Flight;
 import io.github.MatthewJacobSD.utils.ConsoleUI;
 import io.github.MatthewJacobSD.utils.FileHandler;
+import io.github.MatthewJacobSD.utils.IdIndex;
+import io.github.MatthewJacobSD.utils.Metrics;
+import io.github.MatthewJacobSD.utils.CSVCodec;
 import io.github.MatthewJacobSD.utils.CSVHandler;
+import io.github.MatthewJacobSD.utils.CSVRecordReader;
 import io.github.MatthewJacobSD.utils.ReferenceValidator;
-
-import java.lang.reflect.Field;
+import io.github.MatthewJacobSD.utils.Repository;
+import io.github.MatthewJacobSD.utils.Snapshot;
+import io.github.MatthewJacobSD.utils.ValidationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public abstract class BaseService<T> {
+    private static final long DEFAULT_PARALLEL_LOAD_THRESHOLD = 8L * 1024 * 1024;
+
     protected final Scanner scanner;
     protected final FileHandler fileHandler;
     protected final ConsoleUI consoleUI;
@@ -19,6 +34,12 @@ public abstract class BaseService<T> {
     protected final String csvFileName;
     protected final Class<T> entityClass;
     protected final ReferenceValidator referenceValidator;
+    protected final Repository<T> repository;
+    private final Metrics.Histogram validationLatency;
+    private final Metrics.Counter validationFailures;
+    private final Metrics.Counter referenceRejects;
+    private final Metrics.Throughput loads;
+    private volatile long parallelLoadThreshold = DEFAULT_PARALLEL_LOAD_THRESHOLD;
 
     public BaseService(Scanner scanner, FileHandler fileHandler, ConsoleUI consoleUI,
                        String entityName, String csvFileName, Class<T> entityClass,
@@ -29,20 +50,81 @@ public abstract class BaseService<T> {
         this.entityName = entityName;
         this.csvFileName = csvFileName;
         this.entityClass = entityClass;
-        this.referenceValidator = new ReferenceValidator(fileHandler, consoleUI, referenceFilePaths);
+        this.referenceValidator = new ReferenceValidator(consoleUI, referenceFilePaths);
+        this.repository = new Repository<>(fileHandler, csvFileName, entityClass);
+        String metric = entityName.toLowerCase();
+        this.validationLatency = Metrics.getInstance().histogram("validation." + metric, true);
+        this.validationFailures = Metrics.getInstance().counter("validation.failed." + metric);
+        this.referenceRejects = Metrics.getInstance().counter("load.rejected.references." + metric);
+        this.loads = Metrics.getInstance().throughput("load." + metric);
+    }
+
+    public String getCsvFileName() {
+        return csvFileName;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return The headless repository over this service's default CSV file.
+     */
+    public Repository<T> getRepository() {
+        return repository;
+    }
+
+    // The repository over a CSV file, sharing the default one when the path refers to it
+    protected Repository<T> repository(String path) {
+        return isDefaultFile(path) ? repository : new Repository<>(fileHandler, path, entityClass);
+    }
+
+    // Whether a path refers to this service's default CSV file
+    protected boolean isDefaultFile(String path) {
+        try {
+            return Path.of(path).toAbsolutePath().normalize().equals(Path.of(csvFileName).toAbsolutePath().normalize());
+        } catch (RuntimeException e) {
+            return false;
+        }
     }
 
     // Abstract method to add a new entity
     protected abstract T addEntity();
 
-    // Abstract method to validate an entity
-    protected abstract String validateEntity(T entity);
+    // Abstract method to validate an entity; dates are checked against the given context
+    protected abstract String validateEntity(T entity, ValidationContext context);
+
+    // Validates an entity against the current time
+    protected String validateEntity(T entity) {
+        return checkEntity(entity, ValidationContext.current());
+    }
+
+    // Validates an entity and records the time taken and failures
+    private String checkEntity(T entity, ValidationContext context) {
+        long start = validationLatency.start();
+        String error = validateEntity(entity, context);
+        validationLatency.stop(start);
+        if (error != null) {
+            validationFailures.increment();
+        }
+        return error;
+    }
 
     // Public method to validate an entity for external use
     public String isValidEntity(T entity) {
         return validateEntity(entity);
     }
 
+    /**
+     * Validates an entity against a context sampled once for a whole batch.
+     * @param entity The entity.
+     * @param context The moment dates are checked against.
+     * @return The error message, or null if the entity is valid.
+     */
+    public String isValidEntity(T entity, ValidationContext context) {
+        return checkEntity(entity, context);
+    }
+
 
     // Reads entity data
     public void read() {
@@ -51,47 +133,89 @@ public abstract class BaseService<T> {
         String path = scanner.nextLine().trim();
 
         consoleUI.showStatus("⏳ Loading " + entityName.toLowerCase() + " data...");
-        String content = fileHandler.readFile(path);
-
-        // Add CSV structure validation
-        if (!validateCSVStructure(content)) {
-            consoleUI.showError("Invalid CSV structure for " + entityName);
+        CSVRecordReader records = fileHandler.openCSV(path);
+        if (records == null) {
+            consoleUI.showError("No " + entityName.toLowerCase() + " data found or file is empty.");
             return;
         }
 
-        if (content != null && !content.isEmpty()) {
-            consoleUI.showSectionHeader(entityName + " Data");
-            List<T> objects = CSVHandler.fromCSV(content, entityClass, this);
-
-            // Add reference validation for each object
-            // Alternative version with positive validation
-            objects.removeIf(obj -> {
-                // Entity validation
-                String validationError = validateEntity(obj);
-                if (validationError != null) {
-                    consoleUI.showError("Invalid " + entityName + ": " + validationError);
-                    return true;
-                }
+        try (records) {
+            // Add CSV structure validation
+            if (!validateCSVStructure(records.header())) {
+                consoleUI.showError("Invalid CSV structure for " + entityName);
+                return;
+            }
 
-                // Reference validation
-                if (obj instanceof Flight || obj instanceof Booking) {
-                    boolean referencesValid = validateReferences(obj);
-                    if (!referencesValid) {
-                        consoleUI.showError("Invalid references in " + entityName);
-                        return true;
-                    }
+            consoleUI.showSectionHeader(entityName + " Data");
+            long start = System.nanoTime();
+            long rejectedBefore = consoleUI.getRejectedCount();
+            long validCount;
+            Snapshot<T> snapshot = Snapshot.open(path, entityClass);
+            if (snapshot != null) {
+                // Rows come from the binary snapshot; entity and reference checks still run
+                ValidationContext context = ValidationContext.sample();
+                validCount = snapshot.materialize().stream()
+                        .filter(obj -> isLoadable(obj, context))
+                        .peek(consoleUI::showEntity)
+                        .count();
+            } else if (Runtime.getRuntime().availableProcessors() > 1 && new File(path).length() >= parallelLoadThreshold) {
+                // Large files are parsed and validated on all cores, printed in file order
+                validCount = CSVHandler.forEachParallel(records, entityClass, this, this::hasValidReferences,
+                        consoleUI::showEntity, true, ForkJoinPool.commonPool());
+            } else {
+                // CSVHandler has already run entity validation through this service
+                try (Stream<T> objects = CSVHandler.stream(records, entityClass, this)) {
+                    validCount = objects
+                            .filter(this::hasValidReferences)
+                            .peek(consoleUI::showEntity)
+                            .count();
                 }
-                return false;
-            });
+            }
 
-            if (objects.isEmpty()) {
+            loads.record(validCount, System.nanoTime() - start);
+            consoleUI.flush();
+            if (validCount == 0) {
                 consoleUI.showError("No valid " + entityName.toLowerCase() + " data found.");
             } else {
-                objects.forEach(obj -> System.out.println("📋 " + obj));
+                consoleUI.showSuccess(String.format("Loaded %d %ss in %.1fs (%d rejected)", validCount,
+                        entityName.toLowerCase(), (System.nanoTime() - start) / 1e9,
+                        consoleUI.getRejectedCount() - rejectedBefore));
             }
-        } else {
-            consoleUI.showError("No " + entityName.toLowerCase() + " data found or file is empty.");
+        } catch (IOException | UncheckedIOException e) {
+            consoleUI.showError("Error reading file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the file size from which {@link #read()} parses and validates rows in parallel.
+     * @param bytes The threshold in bytes; 0 always loads in parallel, {@link Long#MAX_VALUE} never does.
+     */
+    public void setParallelLoadThreshold(long bytes) {
+        this.parallelLoadThreshold = bytes;
+    }
+
+    // Checks a loaded entity and its references, reporting why it is rejected
+    private boolean isLoadable(T obj, ValidationContext context) {
+        // Entity validation
+        String validationError = checkEntity(obj, context);
+        if (validationError != null) {
+            consoleUI.showRejected("Invalid " + entityName + ": " + validationError);
+            return false;
         }
+        return hasValidReferences(obj);
+    }
+
+    // Checks the references of an entity that has already been validated
+    private boolean hasValidReferences(T obj) {
+        if (obj instanceof Flight || obj instanceof Booking) {
+            boolean referencesValid = validateReferences(obj);
+            if (!referencesValid) {
+                referenceRejects.increment();
+                consoleUI.showRejected("Invalid references in " + entityName);
+                return false;
+            }
+        }
+        return true;
     }
 
     protected boolean validateReferences(T entity) {
@@ -105,31 +229,18 @@ public abstract class BaseService<T> {
         return true;
     }
 
-    protected boolean validateCSVStructure(String content) {
-        if (content == null || content.isEmpty()) {
+    protected boolean validateCSVStructure(String headerLine) {
+        if (headerLine == null || headerLine.isEmpty()) {
             consoleUI.showError("File is empty");
             return false;
         }
 
-        String[] lines = content.split("\n");
-        if (lines.length < 1) {
-            consoleUI.showError("No headers found");
-            return false;
-        }
-
         try {
             // Parse headers from the first line
-            String[] headers = CSVHandler.parseHeaders(lines[0]);
-
-            // Get all declared fields including inherited ones
-            List<String> fieldNames = new ArrayList<>();
-            Class<?> currentClass = entityClass;
-            while (currentClass != null) {
-                Arrays.stream(currentClass.getDeclaredFields())
-                        .map(Field::getName)
-                        .forEach(fieldNames::add);
-                currentClass = currentClass.getSuperclass();
-            }
+            String[] headers = CSVHandler.parseHeaders(headerLine);
+
+            // Fields added later with a default, such as a flight's capacity, may be missing
+            List<String> fieldNames = CSVCodec.forClass(entityClass).requiredFieldNames();
 
             if (!new HashSet<>(Arrays.asList(headers)).containsAll(fieldNames)) {
                 consoleUI.showError("Missing fields. Expected: " + fieldNames + ", found: " + Arrays.toString(headers));
@@ -192,48 +303,65 @@ public abstract class BaseService<T> {
 
         // Check for existing UUIDs when appending
         if (append) {
-            String content = fileHandler.readFile(path);
-            if (content != null && !content.isEmpty()) {
-                List<T> existing = CSVHandler.fromCSV(content, entityClass, this);
-                List<String> existingIds = extractIds(existing.stream());
-                List<String> newIds = extractIds(entities.stream());
-
-                if (existingIds.stream().anyMatch(newIds::contains)) {
-                    consoleUI.showWarning("Some IDs already exist in " + path + ". This may create duplicates.");
-                    if (consoleUI.confirmActionChoice("Continue with append?")) {
-                        consoleUI.showStatus("⏹️ Operation cancelled by user");
-                        return;
-                    }
+            Set<String> newIds = extractIds(entities.stream()).collect(Collectors.toSet());
+            boolean duplicates = false;
+            try {
+                IdIndex index = IdIndex.open(path);
+                duplicates = index != null && index.containsAny(newIds);
+            } catch (IOException | UncheckedIOException e) {
+                consoleUI.showError("Error reading ID index for " + path + ": " + e.getMessage());
+            }
+
+            if (duplicates) {
+                consoleUI.showWarning("Some IDs already exist in " + path + ". This may create duplicates.");
+                if (consoleUI.confirmActionChoice("Continue with append?")) {
+                    consoleUI.showStatus("⏹️ Operation cancelled by user");
+                    return;
                 }
             }
         }
 
         consoleUI.showStatus("⏳ Saving " + entityName.toLowerCase() + " data...");
-        boolean success = fileHandler.writeCSV(path, new ArrayList<>(entities), append);
+        boolean success = persist(path, new ArrayList<>(entities), append);
 
         if (success) {
             consoleUI.showSuccess(entityName + " data saved successfully!");
             consoleUI.showSectionHeader("Saved " + entityName + " Data");
-            entities.forEach(obj -> System.out.println("📋 " + obj));
+            entities.forEach(consoleUI::showEntity);
+            consoleUI.flush();
             consoleUI.showStatus("📄 Check " + path + " for saved data");
         } else {
             consoleUI.showError("Failed to save " + entityName.toLowerCase() + " data.");
         }
     }
 
+    /**
+     * Saves validated entities. Services may override this to route writes elsewhere, e.g. through a journal.
+     * @param path The CSV file path.
+     * @param entities The entities to save.
+     * @param append Whether to append to an existing file.
+     * @return true if successful, false otherwise.
+     */
+    protected boolean persist(String path, List<T> entities, boolean append) {
+        if (!fileHandler.confirmCSVWrite(path, entities, append)) {
+            return false;
+        }
+        try {
+            Repository<T> target = repository(path);
+            long rows = append ? target.append(entities) : target.saveAll(entities);
+            fileHandler.reportWritten(path, rows);
+            return true;
+        } catch (IOException | UncheckedIOException | InvalidPathException e) {
+            consoleUI.showError("Error writing to file: " + e.getMessage());
+            return false;
+        }
+    }
+
     // Extracts IDs from a stream of entities
-    private List<String> extractIds(Stream<T> stream) {
+    private Stream<String> extractIds(Stream<T> stream) {
+        CSVCodec<T> codec = CSVCodec.forClass(entityClass);
         return stream
-                .map(obj -> {
-                    try {
-                        Field idField = obj.getClass().getDeclaredField("id");
-                        idField.setAccessible(true);
-                        Object idValue = idField.get(obj);
-                        return idValue != null ? idValue.toString() : null;
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
+                .map(codec::id)
                 .filter(Objects::nonNull)
                 .filter(id -> {
                     try {
@@ -242,8 +370,7 @@ public abstract class BaseService<T> {
                     } catch (IllegalArgumentException e) {
                         return false;
                     }
-                })
-                .toList();
+                });
     }
 
     // Entity data menu
@@ -5,19 +5,188 @@ import io.github.MatthewJacobSD.models.Customer;
 import io.github.MatthewJacobSD.models.Flight;
 import io.github.MatthewJacobSD.utils.ConsoleUI;
 import io.github.MatthewJacobSD.utils.FileHandler;
+import io.github.MatthewJacobSD.utils.Journal;
+import io.github.MatthewJacobSD.utils.ReferenceRegistry;
+import io.github.MatthewJacobSD.utils.SeatInventory;
+import io.github.MatthewJacobSD.utils.ValidationContext;
 import io.github.MatthewJacobSD.utils.Validator;
-import io.github.MatthewJacobSD.utils.CSVHandler;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SBooking extends BaseService<Booking> {
+    private static final String CUSTOMERS_FILE = "customers.csv";
+    private static final String FLIGHTS_FILE = "flights.csv";
+    private static final String BOOKINGS_FILE = "bookings.csv";
+    private final ReferenceRegistry references = ReferenceRegistry.getInstance();
+    private Journal<Booking> journal;
+    private SeatInventory seats;
+    // Seats held for bookings entered but not yet saved, by booking ID
+    private final Map<String, SeatInventory.Hold> holds = new ConcurrentHashMap<>();
+
     public SBooking(Scanner scanner, FileHandler fileHandler, ConsoleUI consoleUI,
                         Map<String, String> referenceFilePaths) {
-        super(scanner, fileHandler, consoleUI, "Booking", "bookings.csv", Booking.class, referenceFilePaths);
+        super(scanner, fileHandler, consoleUI, "Booking", BOOKINGS_FILE, Booking.class, referenceFilePaths);
+
+        // Replay bookings left in the journal by an earlier run that did not shut down cleanly
+        if (Journal.exists(BOOKINGS_FILE)) {
+            journal();
+        }
+    }
+
+    /**
+     * Appends to the bookings file go through the write-ahead journal, so concurrent submissions are
+     * group-committed; other writes use the regular CSV export. Bookings saved to the bookings file
+     * confirm their held seats first and are rejected if a flight has no seat left.
+     */
+    @Override
+    protected boolean persist(String path, List<Booking> bookings, boolean append) {
+        if (!isDefaultFile(path)) {
+            // Seats are only counted for the bookings file
+            bookings.forEach(booking -> release(holds.remove(booking.getId())));
+            return super.persist(path, bookings, append);
+        }
+        SeatInventory inventory = getSeatInventory();
+        if (inventory == null) {
+            return false;
+        }
+
+        List<SeatInventory.Hold> confirmed = confirmSeats(inventory, bookings);
+        if (confirmed == null) {
+            return false;
+        }
+        boolean saved = save(path, bookings, append);
+        if (!saved) {
+            confirmed.forEach(inventory::release);
+        } else if (!append) {
+            // The file was replaced, so seats are counted again on next use
+            resetSeats();
+        }
+        return saved;
+    }
+
+    // Confirms the held seat of each booking; returns null and keeps nothing if a flight has no seat left
+    private List<SeatInventory.Hold> confirmSeats(SeatInventory inventory, List<Booking> bookings) {
+        List<SeatInventory.Hold> confirmed = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            SeatInventory.Hold hold = holds.remove(booking.getId());
+            SeatInventory.Hold seat = hold != null ? inventory.confirm(hold) : null;
+            if (seat == null) {
+                // The hold expired or the booking was entered elsewhere, so take any free seat
+                seat = inventory.book(booking.getFlightId());
+            }
+            if (seat == null) {
+                consoleUI.showError("Flight " + booking.getFlightId() + " is fully booked; nothing was saved.");
+                confirmed.forEach(inventory::release);
+                return null;
+            }
+            confirmed.add(seat);
+        }
+        return confirmed;
+    }
+
+    private boolean save(String path, List<Booking> bookings, boolean append) {
+        Journal<Booking> journal = append ? journal() : null;
+        if (journal == null) {
+            return super.persist(path, bookings, append);
+        }
+
+        // Bookings still in the journal are not in the CSV's ID index yet, so they are checked here
+        if (journal.containsAny(bookings.stream().map(Booking::getId).toList())) {
+            consoleUI.showError("Some booking IDs are already journaled for " + path + "; nothing was saved.");
+            return false;
+        }
+        // Same preview and prompt as a regular export, before anything is journaled
+        if (!fileHandler.confirmCSVWrite(path, bookings, append)) {
+            return false;
+        }
+        consoleUI.showStatus("📝 Journaling " + bookings.size() + " bookings...");
+        try {
+            CompletableFuture.allOf(bookings.stream().map(journal::append).toArray(CompletableFuture[]::new)).join();
+            consoleUI.showSuccess("✅ Committed " + bookings.size() + " bookings to the journal for " + path);
+            return true;
+        } catch (CompletionException e) {
+            consoleUI.showError("Error writing booking journal: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Journals one validated booking for the bookings file without prompts, e.g. for a request handler.
+     * Concurrent calls are group-committed. Seats are left to the caller.
+     * @param booking The booking.
+     * @return A future completed once the booking is durable, or failed if it cannot be journaled.
+     */
+    public CompletableFuture<Void> append(Booking booking) {
+        Journal<Booking> journal = journal();
+        if (journal == null) {
+            return CompletableFuture.failedFuture(new IOException("Booking journal is not available."));
+        }
+        return journal.append(booking);
+    }
+
+    /**
+     * Checkpoints journaled bookings into the bookings file and stops the journal.
+     */
+    public synchronized void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            consoleUI.showError("Error checkpointing booking journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    /**
+     * Returns the seat inventory over the flights and bookings files, loading it on first use.
+     * Bookings saved through this service take their seats from it.
+     * @return The inventory, or null if the files cannot be read.
+     */
+    public synchronized SeatInventory getSeatInventory() {
+        if (seats == null) {
+            // Journaled bookings are checkpointed first so that they are counted
+            closeJournal();
+            try {
+                seats = SeatInventory.load(FLIGHTS_FILE, BOOKINGS_FILE);
+            } catch (IOException e) {
+                consoleUI.showError("Error loading seat inventory: " + e.getMessage());
+            }
+        }
+        return seats;
+    }
+
+    private synchronized void release(SeatInventory.Hold hold) {
+        if (hold != null && seats != null) {
+            seats.release(hold);
+        }
+    }
+
+    private synchronized void resetSeats() {
+        seats = null;
+        holds.clear();
+    }
+
+    // Opens the journal on first use; returns null if it cannot be opened
+    private synchronized Journal<Booking> journal() {
+        if (journal == null) {
+            try {
+                journal = Journal.open(BOOKINGS_FILE, Booking.class);
+            } catch (IOException e) {
+                consoleUI.showError("Error opening booking journal: " + e.getMessage());
+            }
+        }
+        return journal;
     }
 
     @Override
@@ -57,10 +226,8 @@ public class SBooking extends BaseService<Booking> {
                 }
                 continue;
             }
-            String content = fileHandler.readFile("customers.csv");
-            if (content != null && !content.isEmpty()) {
-                List<Customer> customers = CSVHandler.fromCSV(content, Customer.class, null);
-                if (customers.stream().noneMatch(c -> c.getId().equals(input))) {
+            if (references.hasEntries(CUSTOMERS_FILE, Customer.class)) {
+                if (!references.contains(CUSTOMERS_FILE, Customer.class, input)) {
                     consoleUI.showError("Customer ID does not exist in customers.csv.");
                     consoleUI.showStatus("🧑 Try again? (y/n): ");
                     if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
@@ -89,10 +256,8 @@ public class SBooking extends BaseService<Booking> {
                 }
                 continue;
             }
-            String content = fileHandler.readFile("flights.csv");
-            if (content != null && !content.isEmpty()) {
-                List<Flight> flights = CSVHandler.fromCSV(content, Flight.class, null);
-                if (flights.stream().noneMatch(f -> f.getId().equals(input))) {
+            if (references.hasEntries(FLIGHTS_FILE, Flight.class)) {
+                if (!references.contains(FLIGHTS_FILE, Flight.class, input)) {
                     consoleUI.showError("Flight ID does not exist in flights.csv.");
                     consoleUI.showStatus("✈️ Try again? (y/n): ");
                     if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
@@ -104,6 +269,28 @@ public class SBooking extends BaseService<Booking> {
                 consoleUI.showError("No flights found in flights.csv.");
                 return null;
             }
+            // Hold a seat until the booking is saved
+            SeatInventory inventory = getSeatInventory();
+            if (inventory != null && inventory.capacity(input) < 0) {
+                // The flight was saved after the inventory was loaded
+                resetSeats();
+                inventory = getSeatInventory();
+            }
+            if (inventory == null) {
+                return null;
+            }
+            SeatInventory.Hold hold = inventory.hold(input);
+            if (hold == null) {
+                consoleUI.showError("Flight is fully booked.");
+                consoleUI.showStatus("✈️ Try again? (y/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    return null;
+                }
+                continue;
+            }
+            holds.put(id, hold);
+            consoleUI.showStatus("💺 Seat " + hold.getSeat() + " held for "
+                    + SeatInventory.DEFAULT_HOLD_TIME.toMinutes() + " minutes");
             flightId = input;
         }
 
@@ -111,7 +298,7 @@ public class SBooking extends BaseService<Booking> {
     }
 
     @Override
-    protected String validateEntity(Booking booking) {
+    protected String validateEntity(Booking booking, ValidationContext context) {
         if (booking == null) {
             return "Booking cannot be null.";
         }
@@ -122,9 +309,8 @@ public class SBooking extends BaseService<Booking> {
             return uuidError;
         }
 
-        // Validate date by converting to string
-        String dateStr = booking.getDate() != null ? booking.getDate().format(Validator.DATE_FORMATTER) : null;
-        String dateError = Validator.validateDate(dateStr, "Booking date");
+        // Validate the parsed date directly
+        String dateError = Validator.validateDate(booking.getDate(), "Booking date", context);
         if (dateError != null) {
             return dateError;
         }
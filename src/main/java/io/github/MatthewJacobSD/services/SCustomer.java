@@ -3,6 +3,7 @@ package io.github.MatthewJacobSD.services;
 import io.github.MatthewJacobSD.models.Customer;
 import io.github.MatthewJacobSD.utils.ConsoleUI;
 import io.github.MatthewJacobSD.utils.FileHandler;
+import io.github.MatthewJacobSD.utils.ValidationContext;
 import io.github.MatthewJacobSD.utils.Validator;
 
 import java.util.Map;
@@ -42,7 +43,7 @@ public class SCustomer extends BaseService<Customer> {
 
     // return null if the customer is invalid
     @Override
-    protected String validateEntity(Customer customer) {
+    protected String validateEntity(Customer customer, ValidationContext context) {
         // Validate UUID
         String uuidError = Validator.validateUUID(customer.getId());
         if (uuidError != null) {
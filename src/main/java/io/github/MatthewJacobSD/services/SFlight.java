@@ -2,11 +2,15 @@ package io.github.MatthewJacobSD.services;
 
 import io.github.MatthewJacobSD.models.Flight;
 import io.github.MatthewJacobSD.models.Route;
+import io.github.MatthewJacobSD.utils.ConnectionSearch;
 import io.github.MatthewJacobSD.utils.ConsoleUI;
 import io.github.MatthewJacobSD.utils.FileHandler;
+import io.github.MatthewJacobSD.utils.FlightIndex;
+import io.github.MatthewJacobSD.utils.ReferenceRegistry;
+import io.github.MatthewJacobSD.utils.ValidationContext;
 import io.github.MatthewJacobSD.utils.Validator;
-import io.github.MatthewJacobSD.utils.CSVHandler;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -14,11 +18,59 @@ import java.util.Scanner;
 import java.util.UUID;
 
 public class SFlight extends BaseService<Flight> {
+    private static final String ROUTES_FILE = "routes.csv";
+    private final ReferenceRegistry references = ReferenceRegistry.getInstance();
+    private FlightIndex flightIndex;
+    private ConnectionSearch connectionSearch;
+
     public SFlight(Scanner scanner, FileHandler fileHandler, ConsoleUI consoleUI,
                    Map<String, String> referenceFilePaths) {
         super(scanner, fileHandler, consoleUI, "Flight", "flights.csv", Flight.class, referenceFilePaths);
     }
 
+    /**
+     * Returns the search index over the flights file, building it on first use.
+     * Flights saved through this service afterwards are added to it.
+     * @return The index.
+     * @throws IOException If the flights file cannot be read.
+     */
+    public synchronized FlightIndex getFlightIndex() throws IOException {
+        if (flightIndex == null) {
+            flightIndex = FlightIndex.load(csvFileName);
+        }
+        return flightIndex;
+    }
+
+    /**
+     * Returns the connection search engine over the flights file, building it on first use.
+     * It is rebuilt after flights are saved through this service.
+     * @return The engine.
+     * @throws IOException If the flights file cannot be read.
+     */
+    public synchronized ConnectionSearch getConnectionSearch() throws IOException {
+        if (connectionSearch == null) {
+            connectionSearch = ConnectionSearch.build(getFlightIndex().flights());
+        }
+        return connectionSearch;
+    }
+
+    @Override
+    protected boolean persist(String path, List<Flight> flights, boolean append) {
+        boolean saved = super.persist(path, flights, append);
+        if (saved && isDefaultFile(path)) {
+            synchronized (this) {
+                connectionSearch = null;
+                if (flightIndex != null && append) {
+                    flightIndex.addAll(flights);
+                } else {
+                    // The file was replaced, so the index is rebuilt on next use
+                    flightIndex = null;
+                }
+            }
+        }
+        return saved;
+    }
+
     @Override
     protected Flight addEntity() {
         consoleUI.showSectionHeader("Add New Flight");
@@ -131,10 +183,8 @@ public class SFlight extends BaseService<Flight> {
                 }
                 continue;
             }
-            String content = fileHandler.readFile("routes.csv");
-            if (content != null && !content.isEmpty()) {
-                List<Route> routes = CSVHandler.fromCSV(content, Route.class, null);
-                if (routes.stream().noneMatch(r -> r.getId().equals(input))) {
+            if (references.hasEntries(ROUTES_FILE, Route.class)) {
+                if (!references.contains(ROUTES_FILE, Route.class, input)) {
                     consoleUI.showError("Route ID does not exist in routes.csv.");
                     consoleUI.showStatus("🛤️ Try again? (y/n): ");
                     if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
@@ -149,11 +199,33 @@ public class SFlight extends BaseService<Flight> {
             routeId = input;
         }
 
-        return new Flight(id, flightNo, depAirport, arrAirport, depTime, arrTime, routeId);
+        // Prompt for seat capacity; blank keeps the default
+        int capacity = 0;
+        while (capacity == 0) {
+            consoleUI.showStatus("💺 Enter seat capacity (blank for " + Flight.DEFAULT_CAPACITY + "): ");
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                capacity = Flight.DEFAULT_CAPACITY;
+                continue;
+            }
+            Integer seats = Validator.parseInt(input);
+            String error = seats == null ? "Capacity must be a whole number." : Validator.validateCapacity(seats);
+            if (error != null) {
+                consoleUI.showError(error);
+                consoleUI.showStatus("💺 Try again? (y/n): ");
+                if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    return null;
+                }
+                continue;
+            }
+            capacity = seats;
+        }
+
+        return new Flight(id, flightNo, depAirport, arrAirport, depTime, arrTime, routeId, capacity);
     }
 
     @Override
-    protected String validateEntity(Flight flight) {
+    protected String validateEntity(Flight flight, ValidationContext context) {
         if (flight == null) {
             return "Flight cannot be null.";
         }
@@ -182,16 +254,12 @@ public class SFlight extends BaseService<Flight> {
             return "Departure and arrival airports cannot be the same.";
         }
 
-        String depTimeError = Validator.validateDateTime(
-                flight.getDepTime() != null ? flight.getDepTime().format(Validator.DATETIME_FORMATTER) : null,
-                "Departure time");
+        String depTimeError = Validator.validateDateTime(flight.getDepTime(), "Departure time", context);
         if (depTimeError != null) {
             return depTimeError;
         }
 
-        String arrTimeError = Validator.validateDateTime(
-                flight.getArrTime() != null ? flight.getArrTime().format(Validator.DATETIME_FORMATTER) : null,
-                "Arrival time");
+        String arrTimeError = Validator.validateDateTime(flight.getArrTime(), "Arrival time", context);
         if (arrTimeError != null) {
             return arrTimeError;
         }
@@ -201,15 +269,18 @@ public class SFlight extends BaseService<Flight> {
             return "Arrival time must be after departure time.";
         }
 
+        String capacityError = Validator.validateCapacity(flight.getCapacity());
+        if (capacityError != null) {
+            return capacityError;
+        }
+
         String routeError = Validator.validateUUID(flight.getRouteId());
         if (routeError != null) {
             return routeError;
         }
 
-        String content = fileHandler.readFile("routes.csv");
-        if (content != null && !content.isEmpty()) {
-            List<Route> routes = CSVHandler.fromCSV(content, Route.class, null);
-            if (routes.stream().noneMatch(r -> r.getId().equals(flight.getRouteId()))) {
+        if (references.hasEntries(ROUTES_FILE, Route.class)) {
+            if (!references.contains(ROUTES_FILE, Route.class, flight.getRouteId())) {
                 return "Route ID does not exist in routes.csv.";
             }
         } else {
@@ -3,6 +3,7 @@ package io.github.MatthewJacobSD.services;
 import io.github.MatthewJacobSD.models.Route;
 import io.github.MatthewJacobSD.utils.ConsoleUI;
 import io.github.MatthewJacobSD.utils.FileHandler;
+import io.github.MatthewJacobSD.utils.ValidationContext;
 import io.github.MatthewJacobSD.utils.Validator;
 
 import java.util.Map;
@@ -44,7 +45,7 @@ public class SRoute extends BaseService<Route> {
 
     // return null if the route is invalid
     @Override
-    protected String validateEntity(Route route) {
+    protected String validateEntity(Route route, ValidationContext context) {
         if (route == null) {
             return "Route cannot be null.";
         }
@@ -0,0 +1,371 @@
+package io.github.MatthewJacobSD.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Customer;
+import io.github.MatthewJacobSD.models.Flight;
+import io.github.MatthewJacobSD.models.Route;
+import io.github.MatthewJacobSD.services.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded HTTP/JSON API over the CSV files, on the JDK's built-in HTTP server.
+ * <p>
+ * Every request runs on its own virtual thread, so thousands of concurrent clients do not need
+ * thousands of platform threads. The files are loaded into memory on start. Entities are
+ * checked with the same validation as the interactive services, plus the ID and reference checks
+ * of batch mode, and written straight to the CSV files. Bookings go through the booking journal,
+ * so concurrent bookings are group-committed, and take a seat from a {@link SeatInventory}.
+ * <pre>
+ * POST /customers, /routes, /flights, /bookings        create; the ID is generated if missing
+ * GET  /customers/{id}, /routes/{id}, /flights/{id}, /bookings/{id}
+ * GET  /flights?depAirport=JFK&amp;arrAirport=LAX[&amp;date=2026-12-01]
+ * GET  /flights/{id}/seats                              capacity and free seats
+ * GET  /metrics                                         the {@link Metrics} snapshot
+ * </pre>
+ * Errors are returned as {@code {"error":"..."}} with a 4xx or 5xx status.
+ */
+public final class ApiServer implements Closeable {
+    private static final int BACKLOG = 4096;
+    private static final Metrics.Histogram REQUEST_LATENCY = Metrics.getInstance().histogram("http.request", false);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SBooking bookingService;
+    private final Resource<Route> routes;
+    private final Resource<Customer> customers;
+    private final Resource<Flight> flights;
+    private final Resource<Booking> bookings;
+    private final FlightIndex flightIndex = new FlightIndex();
+    private final SeatInventory seats;
+
+    private ApiServer(InetSocketAddress address) throws IOException {
+        // Nothing may block on keyboard input while serving
+        Scanner scanner = new Scanner(InputStream.nullInputStream());
+        ConsoleUI consoleUI = new ConsoleUI(scanner);
+        FileHandler fileHandler = new FileHandler(consoleUI);
+        this.bookingService = new SBooking(scanner, fileHandler, consoleUI,
+                Map.of("customers", "customers.csv", "flights", "flights.csv"));
+        this.routes = new Resource<>(new SRoute(scanner, fileHandler, consoleUI));
+        this.customers = new Resource<>(new SCustomer(scanner, fileHandler, consoleUI));
+        this.flights = new Resource<>(new SFlight(scanner, fileHandler, consoleUI, Map.of("routes", "routes.csv")));
+        this.bookings = new Resource<>(bookingService);
+
+        flights.rows.forEach(flightIndex::add);
+        Map<String, Integer> booked = new HashMap<>();
+        bookings.rows.forEachBookedFlight(flightId -> {
+            if (flightId != null) {
+                booked.merge(flightId, 1, Integer::sum);
+            }
+        });
+        this.seats = new SeatInventory(id -> {
+            Flight flight = flights.rows.get(id);
+            return flight != null && SeatInventory.hasValidCapacity(flight) ? flight.getCapacity() : -1;
+        }, id -> booked.getOrDefault(id, 0));
+
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/routes", exchange -> handle(exchange, e -> dispatch(e, "routes", routes)));
+        server.createContext("/customers", exchange -> handle(exchange, e -> dispatch(e, "customers", customers)));
+        server.createContext("/flights", exchange -> handle(exchange, e -> dispatch(e, "flights", flights)));
+        server.createContext("/bookings", exchange -> handle(exchange, e -> dispatch(e, "bookings", bookings)));
+        server.createContext("/metrics", exchange -> handle(exchange, this::metrics));
+    }
+
+    /**
+     * Loads the CSV files and starts serving.
+     * @param port The TCP port; 0 picks a free one.
+     * @return The running server.
+     * @throws IOException If a file cannot be read or the port cannot be bound.
+     */
+    public static ApiServer start(int port) throws IOException {
+        // Without TCP_NODELAY, small responses wait out delayed ACKs (about 40 ms each); read when the server first loads
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ApiServer api = new ApiServer(new InetSocketAddress(port));
+        api.server.start();
+        return api;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for those in progress and checkpoints the booking journal.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+        bookingService.closeJournal();
+    }
+
+    // Answers one request, turning unexpected failures into a 500
+    private void handle(HttpExchange exchange, Handler handler) {
+        long start = REQUEST_LATENCY.start();
+        try {
+            try {
+                handler.handle(exchange);
+            } catch (RuntimeException e) {
+                OutputSink.getInstance().error("❌ Error handling " + exchange.getRequestURI() + ": " + e);
+                sendError(exchange, 500, "Internal error: " + e.getMessage());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The client went away or the response was already started; there is nobody left to answer
+            OutputSink.getInstance().error("❌ Error answering " + exchange.getRequestURI() + ": " + e.getMessage());
+        } finally {
+            exchange.close();
+            REQUEST_LATENCY.stop(start);
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/metrics")) {
+            sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+        } else if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod() + " /metrics");
+        } else {
+            send(exchange, 200, Metrics.getInstance().toJson());
+        }
+    }
+
+    private <T> void dispatch(HttpExchange exchange, String name, Resource<T> resource) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        // path[0] is empty and path[1] the resource name; contexts also match longer names such as /flightsX
+        if (path.length < 2 || !path[1].equals(name)) {
+            sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+        } else if (path.length == 2 && method.equals("POST")) {
+            create(exchange, resource);
+        } else if (path.length == 2 && method.equals("GET") && resource == flights) {
+            findFlights(exchange);
+        } else if (path.length == 3 && method.equals("GET")) {
+            T entity = resource.rows.get(path[2]);
+            if (entity == null) {
+                sendError(exchange, 404, resource.name() + " not found: " + path[2]);
+            } else {
+                send(exchange, 200, JsonSupport.GSON.toJsonTree(entity));
+            }
+        } else if (path.length == 4 && method.equals("GET") && resource == flights && path[3].equals("seats")) {
+            seats(exchange, path[2]);
+        } else if (path.length <= 4) {
+            sendError(exchange, 405, "Method not allowed: " + method + " " + exchange.getRequestURI().getPath());
+        } else {
+            sendError(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private <T> void create(HttpExchange exchange, Resource<T> resource) throws IOException {
+        T entity;
+        try (Reader body = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            JsonReader reader = new JsonReader(body);
+            reader.setLenient(true);
+            JsonElement element = JsonParser.parseReader(reader);
+            if (!element.isJsonObject()) {
+                sendError(exchange, 400, "Request body must be a JSON object.");
+                return;
+            }
+            entity = JsonSupport.GSON.fromJson(element, resource.type());
+        } catch (JsonParseException | DateTimeException e) {
+            sendError(exchange, 400, "Malformed JSON: " + e.getMessage());
+            return;
+        }
+
+        String id = resource.codec.id(entity);
+        if (id == null) {
+            // Same as the interactive services: new entities get a random ID
+            id = UUID.randomUUID().toString();
+            resource.codec.set(entity, resource.codec.fieldNames().indexOf("id"), id);
+        }
+        String error = resource.service.isValidEntity(entity, ValidationContext.current());
+        if (error == null) {
+            error = missingReference(entity);
+        }
+        if (error != null) {
+            sendError(exchange, 400, error);
+            return;
+        }
+        // Claiming the ID first makes concurrent creates with the same ID fail here, not in the file.
+        // Stored rows are checked after claiming, since a claim is only dropped once its entity is stored.
+        boolean claimed = resource.claims.putIfAbsent(id, entity) == null;
+        if (!claimed || resource.rows.contains(id)) {
+            if (claimed) {
+                resource.claims.remove(id, entity);
+            }
+            sendError(exchange, 409, resource.name() + " ID already exists: " + id);
+            return;
+        }
+
+        SeatInventory.Hold seat = null;
+        boolean saved = false;
+        try {
+            if (entity instanceof Booking booking) {
+                seat = seats.book(booking.getFlightId());
+                if (seat == null) {
+                    sendError(exchange, 409, "Flight is fully booked: " + booking.getFlightId());
+                    return;
+                }
+            }
+            resource.persist(entity);
+            resource.rows.add(entity);
+            saved = true;
+        } catch (IOException | UncheckedIOException | CompletionException e) {
+            String cause = e instanceof CompletionException ? e.getCause().getMessage() : e.getMessage();
+            sendError(exchange, 500, "Error saving to " + resource.service.getCsvFileName() + ": " + cause);
+            return;
+        } finally {
+            // Every failure, expected or not, gives back the seat; the claim goes either way
+            resource.claims.remove(id, entity);
+            if (!saved && seat != null) {
+                seats.release(seat);
+            }
+        }
+        if (entity instanceof Flight flight) {
+            flightIndex.add(flight);
+        }
+        send(exchange, 201, JsonSupport.GSON.toJsonTree(entity));
+    }
+
+    private String missingReference(Object entity) {
+        if (entity instanceof Booking booking) {
+            if (!customers.rows.contains(booking.getCustomerId())) {
+                return "Customer ID does not exist: " + booking.getCustomerId();
+            }
+            if (!flights.rows.contains(booking.getFlightId())) {
+                return "Flight ID does not exist: " + booking.getFlightId();
+            }
+        }
+        return null;
+    }
+
+    private void findFlights(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        String dep = query.get("depAirport");
+        String arr = query.get("arrAirport");
+        if (dep == null || arr == null) {
+            sendError(exchange, 400, "depAirport and arrAirport are required.");
+            return;
+        }
+        LocalDateTime from = LocalDateTime.MIN;
+        LocalDateTime to = LocalDateTime.MAX;
+        if (query.containsKey("date")) {
+            LocalDate date = Validator.parseDate(query.get("date"));
+            if (date == null) {
+                sendError(exchange, 400, ValidationError.INVALID_DATE_FORMAT.message("Date"));
+                return;
+            }
+            from = date.atStartOfDay();
+            to = date.atTime(LocalTime.MAX);
+        }
+        send(exchange, 200, JsonSupport.GSON.toJsonTree(flightIndex.search(dep, arr, from, to)));
+    }
+
+    private void seats(HttpExchange exchange, String flightId) throws IOException {
+        int capacity = seats.capacity(flightId);
+        if (capacity < 0) {
+            sendError(exchange, 404, "Flight not found: " + flightId);
+            return;
+        }
+        JsonObject result = new JsonObject();
+        result.addProperty("flightId", flightId);
+        result.addProperty("capacity", capacity);
+        result.addProperty("available", seats.available(flightId));
+        send(exchange, 200, result);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> values = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        send(exchange, status, error);
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonElement body) throws IOException {
+        byte[] bytes = JsonSupport.GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * One CSV file, held in memory by ID, with the IDs of creates still being saved.
+     */
+    private final class Resource<T> {
+        final BaseService<T> service;
+        final CSVCodec<T> codec;
+        final EntityStore<T> rows;
+        final Map<String, T> claims = new ConcurrentHashMap<>();
+
+        Resource(BaseService<T> service) throws IOException {
+            this.service = service;
+            this.codec = CSVCodec.forClass(service.getEntityClass());
+            this.rows = EntityStore.of(service.getEntityClass());
+            try (Stream<T> stored = service.getRepository().stream()) {
+                stored.filter(entity -> codec.id(entity) != null).forEach(rows::add);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        Class<T> type() {
+            return service.getEntityClass();
+        }
+
+        String name() {
+            return type().getSimpleName();
+        }
+
+        // Bookings are group-committed through the journal; other files take one append at a time
+        void persist(T entity) throws IOException {
+            if (entity instanceof Booking booking) {
+                bookingService.append(booking).join();
+                return;
+            }
+            service.getRepository().append(List.of(entity));
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package io.github.MatthewJacobSD.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Customer;
+import io.github.MatthewJacobSD.models.Flight;
+import io.github.MatthewJacobSD.models.Route;
+import io.github.MatthewJacobSD.services.*;
+
+import java.io.*;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Runs JSONL commands without the interactive menus.
+ * <p>
+ * Each input line is one JSON object with an {@code op} field, e.g.
+ * <pre>
+ * {"op":"createCustomer","firstName":"Ada","lastName":"Lovelace","email":"ada@example.com",...}
+ * {"op":"getFlight","id":"..."}
+ * {"op":"findFlights","depAirport":"JFK","arrAirport":"LAX","date":"2026-12-01"}
+ * {"op":"findConnections","depAirport":"ABN","arrAirport":"MIL","departAfter":"2026-12-01 06:00","maxLegs":3}
+ * </pre>
+ * Creates go through the same entity validation as the interactive services, plus ID and
+ * reference checks against the CSV files and earlier commands in the same run. Accepted
+ * entities are buffered and appended to the CSV files every {@link #BATCH_SIZE} commands
+ * (routes earlier, as soon as a flight needs them).
+ * One JSON result line is written per command once its batch has been saved. Creates with
+ * an ID that is already stored are rejected, so replaying input that carries its own IDs does
+ * not create duplicates.
+ */
+public class BatchProcessor {
+    static final int BATCH_SIZE = 10_000;
+
+    private final Table<Route> routes;
+    private final Table<Customer> customers;
+    private final Table<Flight> flights;
+    private final Table<Booking> bookings;
+    private final List<Table<?>> tables;
+    private final List<JsonObject> results = new ArrayList<>();
+    private long succeeded;
+    private long failed;
+    // Dates in one batch are validated against the same moment
+    private ValidationContext context = ValidationContext.sample();
+    private FlightIndex flightIndex;
+    private ConnectionSearch connectionSearch;
+    private SeatInventory seats;
+
+    public BatchProcessor(Scanner scanner, FileHandler fileHandler, ConsoleUI consoleUI) {
+        this.routes = new Table<>(new SRoute(scanner, fileHandler, consoleUI));
+        this.customers = new Table<>(new SCustomer(scanner, fileHandler, consoleUI));
+        this.flights = new Table<>(new SFlight(scanner, fileHandler, consoleUI, Map.of("routes", "routes.csv")));
+        this.bookings = new Table<>(new SBooking(scanner, fileHandler, consoleUI,
+                Map.of("customers", "customers.csv", "flights", "flights.csv")));
+        // Referenced tables are saved first
+        this.tables = List.of(routes, customers, flights, bookings);
+    }
+
+    /**
+     * Processes every command in the input and writes one result line per command.
+     * @param in The JSONL commands.
+     * @param out Receives the JSONL results.
+     * @return The number of commands that failed.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        long lineNo = 0;
+        for (String line; (line = in.readLine()) != null; ) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonObject result = new JsonObject();
+            result.addProperty("line", lineNo);
+            results.add(result);
+            execute(line, result);
+
+            if (results.size() >= BATCH_SIZE) {
+                flush(out);
+            }
+        }
+        flush(out);
+        out.flush();
+        return failed;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    private void execute(String line, JsonObject result) {
+        JsonObject command;
+        try {
+            JsonReader reader = new JsonReader(new StringReader(line));
+            reader.setLenient(true);
+            JsonElement element = JsonParser.parseReader(reader);
+            if (!element.isJsonObject()) {
+                fail(result, "Command must be a JSON object.");
+                return;
+            }
+            command = element.getAsJsonObject();
+        } catch (JsonParseException e) {
+            fail(result, "Malformed JSON: " + e.getMessage());
+            return;
+        }
+
+        // Only this command fails if op is null, an object or an array
+        JsonElement opElement = command.get("op");
+        if (opElement != null && !opElement.isJsonPrimitive()) {
+            fail(result, "Invalid command: op must be a string.");
+            return;
+        }
+        String op = opElement != null ? opElement.getAsString() : "";
+        result.addProperty("op", op);
+        try {
+            switch (op) {
+                case "createRoute" -> create(routes, command, result);
+                case "createCustomer" -> create(customers, command, result);
+                case "createFlight" -> create(flights, command, result);
+                case "createBooking" -> create(bookings, command, result);
+                case "getRoute" -> get(routes, command, result);
+                case "getCustomer" -> get(customers, command, result);
+                case "getFlight" -> get(flights, command, result);
+                case "getBooking" -> get(bookings, command, result);
+                case "findFlights" -> findFlights(command, result);
+                case "findConnections" -> findConnections(command, result);
+                default -> fail(result, "Unknown op: " + op);
+            }
+        } catch (JsonParseException | DateTimeException | IllegalArgumentException | IllegalStateException
+                 | UnsupportedOperationException e) {
+            fail(result, "Invalid command: " + e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            fail(result, "Error reading data: " + e.getMessage());
+        }
+    }
+
+    private <T> void create(Table<T> table, JsonObject command, JsonObject result) throws IOException {
+        T entity = JsonSupport.GSON.fromJson(command, table.type());
+        String id = table.codec.id(entity);
+        if (id == null) {
+            // Same as the interactive services: new entities get a random ID
+            id = UUID.randomUUID().toString();
+            table.codec.set(entity, table.codec.fieldNames().indexOf("id"), id);
+        }
+        result.addProperty("id", id);
+
+        // SFlight checks routes against routes.csv, so pending routes are saved first
+        if (table == flights) {
+            routes.save();
+        }
+        String error = table.service.isValidEntity(entity, context);
+        if (error == null && table.ids().contains(id)) {
+            error = table.type().getSimpleName() + " ID already exists: " + id;
+        }
+        if (error == null) {
+            error = missingReference(entity);
+        }
+        if (error == null && entity instanceof Booking booking && seats().book(booking.getFlightId()) == null) {
+            error = "Flight is fully booked: " + booking.getFlightId();
+        }
+        if (error != null) {
+            fail(result, error);
+            return;
+        }
+
+        table.add(id, entity, result);
+        if (entity instanceof Flight flight) {
+            if (flightIndex != null) {
+                flightIndex.add(flight);
+            }
+            connectionSearch = null;
+        }
+        result.addProperty("status", "ok");
+    }
+
+    private String missingReference(Object entity) throws IOException {
+        if (entity instanceof Booking booking) {
+            if (!customers.ids().contains(booking.getCustomerId())) {
+                return "Customer ID does not exist: " + booking.getCustomerId();
+            }
+            if (!flights.ids().contains(booking.getFlightId())) {
+                return "Flight ID does not exist: " + booking.getFlightId();
+            }
+        }
+        return null;
+    }
+
+    private <T> void get(Table<T> table, JsonObject command, JsonObject result) throws IOException {
+        String id = command.has("id") ? command.get("id").getAsString() : null;
+        T entity = id != null ? table.rows().get(id) : null;
+        if (entity == null) {
+            result.addProperty("status", "not_found");
+            return;
+        }
+        result.addProperty("status", "ok");
+        result.add("result", JsonSupport.GSON.toJsonTree(entity));
+    }
+
+    private void findFlights(JsonObject command, JsonObject result) throws IOException {
+        String dep = command.has("depAirport") ? command.get("depAirport").getAsString() : null;
+        String arr = command.has("arrAirport") ? command.get("arrAirport").getAsString() : null;
+        LocalDate date = command.has("date")
+                ? LocalDate.parse(command.get("date").getAsString(), Validator.DATE_FORMATTER) : null;
+
+        JsonArray matches = new JsonArray();
+        if (dep != null && arr != null) {
+            // With both airports the index answers without scanning every flight
+            LocalDateTime from = date != null ? date.atStartOfDay() : LocalDateTime.MIN;
+            LocalDateTime to = date != null ? date.atTime(LocalTime.MAX) : LocalDateTime.MAX;
+            flightIndex().forEach(dep, arr, from, to, flight -> matches.add(JsonSupport.GSON.toJsonTree(flight)));
+            result.addProperty("status", "ok");
+            result.add("result", matches);
+            return;
+        }
+        // With one airport or none, the flight columns are scanned and only the matches are built
+        LocalDateTime from = date != null ? date.atStartOfDay() : null;
+        LocalDateTime to = date != null ? date.atTime(LocalTime.MAX) : null;
+        flights.rows().forEachFlight(dep, arr, from, to, flight -> matches.add(JsonSupport.GSON.toJsonTree(flight)));
+        result.addProperty("status", "ok");
+        result.add("result", matches);
+    }
+
+    private void findConnections(JsonObject command, JsonObject result) throws IOException {
+        LocalDateTime earliest;
+        LocalDateTime latest = dateTime(command, "departBefore");
+        String date = string(command, "date");
+        if (date != null) {
+            LocalDate day = LocalDate.parse(date, Validator.DATE_FORMATTER);
+            earliest = day.atStartOfDay();
+            latest = latest != null ? latest : day.atTime(LocalTime.MAX);
+        } else {
+            earliest = dateTime(command, "departAfter");
+        }
+        Integer minConnection = integer(command, "minConnectionMinutes");
+        Integer maxConnection = integer(command, "maxConnectionMinutes");
+        String order = string(command, "order");
+        ConnectionSearch.Query query = new ConnectionSearch.Query(
+                string(command, "depAirport"), string(command, "arrAirport"), earliest, latest,
+                minConnection != null ? Duration.ofMinutes(minConnection) : null,
+                maxConnection != null ? Duration.ofMinutes(maxConnection) : null,
+                integer(command, "maxLegs"), integer(command, "limit"),
+                order == null ? null : "fewestLegs".equals(order)
+                        ? ConnectionSearch.Order.FEWEST_LEGS : ConnectionSearch.Order.EARLIEST_ARRIVAL);
+
+        JsonArray itineraries = new JsonArray();
+        for (ConnectionSearch.Itinerary itinerary : connectionSearch().search(query)) {
+            JsonObject json = new JsonObject();
+            json.addProperty("legs", itinerary.legs());
+            json.addProperty("departure", itinerary.departure().format(Validator.DATETIME_FORMATTER));
+            json.addProperty("arrival", itinerary.arrival().format(Validator.DATETIME_FORMATTER));
+            json.addProperty("durationMinutes", itinerary.duration().toMinutes());
+            json.add("flights", JsonSupport.GSON.toJsonTree(itinerary.flights()));
+            itineraries.add(json);
+        }
+        result.addProperty("status", "ok");
+        result.add("result", itineraries);
+    }
+
+    private static String string(JsonObject command, String name) {
+        return command.has(name) && !command.get(name).isJsonNull() ? command.get(name).getAsString() : null;
+    }
+
+    private static Integer integer(JsonObject command, String name) {
+        return command.has(name) && !command.get(name).isJsonNull() ? command.get(name).getAsInt() : null;
+    }
+
+    private static LocalDateTime dateTime(JsonObject command, String name) {
+        String value = string(command, name);
+        return value != null ? LocalDateTime.parse(value, Validator.DATETIME_FORMATTER) : null;
+    }
+
+    // Connection search over stored and pending flights, rebuilt after flights are added
+    private ConnectionSearch connectionSearch() throws IOException {
+        if (connectionSearch == null) {
+            connectionSearch = ConnectionSearch.build(flights.rows().toList());
+        }
+        return connectionSearch;
+    }
+
+    // Seats of stored and pending flights, counting stored and pending bookings, built on the first booking
+    private SeatInventory seats() throws IOException {
+        if (seats == null) {
+            Map<String, Integer> booked = new HashMap<>();
+            bookings.rows().forEachBookedFlight(flightId -> {
+                if (flightId != null) {
+                    booked.merge(flightId, 1, Integer::sum);
+                }
+            });
+            EntityStore<Flight> flightRows = flights.rows();
+            seats = new SeatInventory(id -> {
+                Flight flight = flightRows.get(id);
+                return flight != null && SeatInventory.hasValidCapacity(flight) ? flight.getCapacity() : -1;
+            }, id -> booked.getOrDefault(id, 0));
+        }
+        return seats;
+    }
+
+    // Stored and pending flights by airport pair, built on the first search
+    private FlightIndex flightIndex() throws IOException {
+        if (flightIndex == null) {
+            FlightIndex index = new FlightIndex();
+            index.addAll(flights.rows().toList());
+            flightIndex = index;
+        }
+        return flightIndex;
+    }
+
+    // Saves the buffered entities, then writes the results of the commands in this batch
+    private void flush(Writer out) throws IOException {
+        for (Table<?> table : tables) {
+            table.save();
+        }
+        for (JsonObject result : results) {
+            if ("error".equals(result.has("status") ? result.get("status").getAsString() : null)) {
+                failed++;
+            } else {
+                succeeded++;
+            }
+            out.write(JsonSupport.GSON.toJson(result));
+            out.write('\n');
+        }
+        results.clear();
+        context = ValidationContext.sample();
+    }
+
+    private static void fail(JsonObject result, String error) {
+        result.addProperty("status", "error");
+        result.addProperty("error", error);
+    }
+
+    /**
+     * One CSV file with the entities waiting to be appended to it and, when needed, its IDs and rows.
+     */
+    private final class Table<T> {
+        final BaseService<T> service;
+        final CSVCodec<T> codec;
+        final List<T> pending = new ArrayList<>();
+        final List<JsonObject> pendingResults = new ArrayList<>();
+        UuidHashSet ids;
+        EntityStore<T> rows;
+
+        Table(BaseService<T> service) {
+            this.service = service;
+            this.codec = CSVCodec.forClass(service.getEntityClass());
+        }
+
+        Class<T> type() {
+            return service.getEntityClass();
+        }
+
+        // Stored and pending IDs, loaded from the CSV on first use
+        UuidHashSet ids() throws IOException {
+            if (ids == null) {
+                UuidHashSet loaded = new UuidHashSet();
+                try (Stream<T> stored = load()) {
+                    stored.map(codec::id).filter(Objects::nonNull).forEach(loaded::add);
+                }
+                pending.forEach(entity -> loaded.add(codec.id(entity)));
+                ids = loaded;
+            }
+            return ids;
+        }
+
+        // Stored and pending entities by ID, loaded from the CSV on first lookup
+        EntityStore<T> rows() throws IOException {
+            if (rows == null) {
+                EntityStore<T> loaded = EntityStore.of(type());
+                try (Stream<T> stored = load()) {
+                    stored.filter(entity -> codec.id(entity) != null).forEach(loaded::add);
+                }
+                pending.forEach(loaded::add);
+                rows = loaded;
+            }
+            return rows;
+        }
+
+        void add(String id, T entity, JsonObject result) throws IOException {
+            ids().add(id);
+            if (rows != null) {
+                rows.add(entity);
+            }
+            pending.add(entity);
+            pendingResults.add(result);
+        }
+
+        void save() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                service.getRepository().append(pending);
+            } catch (IOException | UncheckedIOException e) {
+                // Nothing from this batch is known to be stored, so it is reported as failed and forgotten
+                pendingResults.forEach(result -> fail(result, "Error saving to " + service.getCsvFileName() + ": " + e.getMessage()));
+                ids = null;
+                rows = null;
+                if (this == flights) {
+                    flightIndex = null;
+                    connectionSearch = null;
+                    seats = null;
+                } else if (this == bookings) {
+                    seats = null;
+                }
+            }
+            pending.clear();
+            pendingResults.clear();
+        }
+
+        private Stream<T> load() throws IOException {
+            return service.getRepository().stream();
+        }
+    }
+}
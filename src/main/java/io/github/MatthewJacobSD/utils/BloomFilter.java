@@ -0,0 +1,66 @@
+package io.github.MatthewJacobSD.utils;
+
+/**
+ * Bloom filter over 128-bit keys, used to reject unknown UUIDs cheaply.
+ * <p>
+ * The k probe positions come from double hashing of the two key halves, so a lookup costs a
+ * few multiplications and at most k word reads.
+ */
+public final class BloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions The expected number of keys.
+     * @param falsePositiveRate The target false-positive rate, between 0 and 1 exclusive.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new long[words];
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(long msb, long lsb) {
+        long h1 = mix(msb ^ Long.rotateLeft(lsb, 32));
+        long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the key was definitely never added; true if it may have been.
+     */
+    public boolean mightContain(long msb, long lsb) {
+        long h1 = mix(msb ^ Long.rotateLeft(lsb, 32));
+        long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long memoryBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
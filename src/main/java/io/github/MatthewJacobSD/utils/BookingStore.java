@@ -0,0 +1,307 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Booking;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Booking storage outside the Java heap, in direct byte buffers.
+ * <p>
+ * Each booking is a fixed-width record of {@link #RECORD_SIZE} bytes: its ID, customer ID and
+ * flight ID as pairs of longs, the date as an epoch day, and flags for unset fields. Records are
+ * kept in chunks of {@link #CHUNK_RECORDS}. An open-addressing hash table, also off-heap, maps
+ * booking IDs to rows. The heap only holds the chunk array, so heap size and collection pauses do
+ * not grow with the number of bookings. A {@link Booking} is only built when one is read through
+ * {@link #get(int)} or {@link #find(String)}.
+ * <p>
+ * Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap
+ * size, and is released when the store is garbage-collected. Rows are only appended. Additions
+ * are serialized, and readers may look up and scan while bookings are added: they see the rows
+ * stored when they started.
+ */
+public final class BookingStore {
+    public static final int RECORD_SIZE = 56;
+    public static final int CHUNK_RECORDS = 1 << 16;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int ID_HIGH = 0;
+    private static final int ID_LOW = 8;
+    private static final int CUSTOMER_HIGH = 16;
+    private static final int CUSTOMER_LOW = 24;
+    private static final int FLIGHT_HIGH = 32;
+    private static final int FLIGHT_LOW = 40;
+    private static final int DATE = 48;
+    private static final int FLAGS = 52;
+    private static final int HAS_DATE = 1;
+    private static final int HAS_CUSTOMER = 2;
+    private static final int HAS_FLIGHT = 4;
+
+    // Index slots hold row + 1, so 0 marks an empty slot; the table is kept at most half full
+    private static final int SLOT_SIZE = Integer.BYTES;
+    private static final int MIN_SLOTS = 1 << 10;
+    // A 1 GB table, the largest doubling that fits a buffer, so at most 2^27 bookings
+    private static final int MAX_SLOTS = 1 << 28;
+
+    private static final StringDictionary CUSTOMER_IDS = CSVCodec.forClass(Booking.class).dictionary("customerId");
+    private static final StringDictionary FLIGHT_IDS = CSVCodec.forClass(Booking.class).dictionary("flightId");
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private volatile ByteBuffer index = allocate(MIN_SLOTS * SLOT_SIZE);
+    private int slotMask = MIN_SLOTS - 1;
+    // Written after the rows it covers, so a reader that reads it first sees them
+    private volatile int size;
+
+    /**
+     * Builds a store from the rows of a bookings CSV file, streaming it so the bookings are never
+     * all on the heap at once. Rows are read with format checks only, so past bookings are kept.
+     * @param csvPath The bookings file.
+     * @return The store; empty if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public static BookingStore load(String csvPath) throws IOException {
+        BookingStore store = new BookingStore();
+        Path file = Path.of(csvPath);
+        if (!Files.exists(file)) {
+            return store;
+        }
+        try (Stream<Booking> bookings = CSVHandler.streamStored(new CSVRecordReader(Files.newBufferedReader(file)), Booking.class)) {
+            bookings.forEach(store::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return store;
+    }
+
+    /**
+     * Appends a booking. Bookings whose ID is already stored, or whose IDs are not lower-case
+     * canonical UUIDs, are skipped, as are all bookings once the store holds 2^27.
+     * @param booking The booking.
+     * @return true if the booking was added.
+     */
+    public synchronized boolean add(Booking booking) {
+        String id = booking.getId();
+        String customerId = booking.getCustomerId();
+        String flightId = booking.getFlightId();
+        if (!UUIDs.isCanonicalLowerCase(id)
+                || (customerId != null && !UUIDs.isCanonicalLowerCase(customerId))
+                || (flightId != null && !UUIDs.isCanonicalLowerCase(flightId))) {
+            return false;
+        }
+        long high = UUIDs.mostSignificantBits(id);
+        long low = UUIDs.leastSignificantBits(id);
+        int row = size;
+        if (row >= MAX_SLOTS / 2 || indexOf(high, low, row) >= 0) {
+            return false;
+        }
+
+        ByteBuffer chunk = chunkFor(row);
+        int offset = (row & (CHUNK_RECORDS - 1)) * RECORD_SIZE;
+        int flags = 0;
+        chunk.putLong(offset + ID_HIGH, high);
+        chunk.putLong(offset + ID_LOW, low);
+        if (customerId != null) {
+            chunk.putLong(offset + CUSTOMER_HIGH, UUIDs.mostSignificantBits(customerId));
+            chunk.putLong(offset + CUSTOMER_LOW, UUIDs.leastSignificantBits(customerId));
+            flags |= HAS_CUSTOMER;
+        }
+        if (flightId != null) {
+            chunk.putLong(offset + FLIGHT_HIGH, UUIDs.mostSignificantBits(flightId));
+            chunk.putLong(offset + FLIGHT_LOW, UUIDs.leastSignificantBits(flightId));
+            flags |= HAS_FLIGHT;
+        }
+        if (booking.getDate() != null) {
+            chunk.putInt(offset + DATE, Math.toIntExact(booking.getDate().toEpochDay()));
+            flags |= HAS_DATE;
+        }
+        chunk.putInt(offset + FLAGS, flags);
+
+        if ((row + 1) * 2L > slotMask + 1) {
+            rehash((slotMask + 1) * 2, row);
+        }
+        insert(index, slotMask, high, low, row);
+        size = row + 1;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The bytes of direct memory held by the records and the index.
+     */
+    public long footprint() {
+        return (long) chunks.length * CHUNK_RECORDS * RECORD_SIZE + index.capacity();
+    }
+
+    /**
+     * Looks up a booking by ID in the index.
+     * @param id The booking ID.
+     * @return The row, or -1 if the ID is not stored.
+     */
+    public int indexOf(String id) {
+        if (!UUIDs.isCanonicalLowerCase(id)) {
+            return -1;
+        }
+        return indexOf(UUIDs.mostSignificantBits(id), UUIDs.leastSignificantBits(id), size);
+    }
+
+    public boolean contains(String id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * @param id The booking ID.
+     * @return A new booking object for that ID, or null if it is not stored.
+     */
+    public Booking find(String id) {
+        int row = indexOf(id);
+        return row >= 0 ? get(row) : null;
+    }
+
+    /**
+     * Builds the booking stored in a row. Customer and flight IDs are shared through their pools.
+     * @param row The row, from 0 in insertion order.
+     * @return A new booking object.
+     */
+    public Booking get(int row) {
+        Objects.checkIndex(row, size);
+        return new Booking(id(row), date(row), customerId(row), flightId(row));
+    }
+
+    // Row accessors; they read the record without building a booking
+
+    public String id(int row) {
+        ByteBuffer chunk = chunks[row >>> CHUNK_SHIFT];
+        int offset = offset(row);
+        return new UUID(chunk.getLong(offset + ID_HIGH), chunk.getLong(offset + ID_LOW)).toString();
+    }
+
+    public LocalDate date(int row) {
+        int day = epochDay(row);
+        return day != Integer.MIN_VALUE ? LocalDate.ofEpochDay(day) : null;
+    }
+
+    /**
+     * @param row The row.
+     * @return The booking date as days since the epoch, or {@link Integer#MIN_VALUE} if unset.
+     */
+    public int epochDay(int row) {
+        ByteBuffer chunk = chunks[row >>> CHUNK_SHIFT];
+        int offset = offset(row);
+        return (chunk.getInt(offset + FLAGS) & HAS_DATE) != 0 ? chunk.getInt(offset + DATE) : Integer.MIN_VALUE;
+    }
+
+    public String customerId(int row) {
+        return uuid(row, CUSTOMER_HIGH, HAS_CUSTOMER, CUSTOMER_IDS);
+    }
+
+    public String flightId(int row) {
+        return uuid(row, FLIGHT_HIGH, HAS_FLIGHT, FLIGHT_IDS);
+    }
+
+    /**
+     * Passes the rows of the bookings of a flight to an action, in row order.
+     * @param flightId The flight ID.
+     * @param action Receives every matching row.
+     */
+    public void forEachOfFlight(String flightId, IntConsumer action) {
+        if (!UUIDs.isCanonicalLowerCase(flightId)) {
+            return;
+        }
+        long high = UUIDs.mostSignificantBits(flightId);
+        long low = UUIDs.leastSignificantBits(flightId);
+        int end = size;
+        ByteBuffer[] current = chunks;
+        for (int row = 0; row < end; row++) {
+            ByteBuffer chunk = current[row >>> CHUNK_SHIFT];
+            int offset = offset(row);
+            if ((chunk.getInt(offset + FLAGS) & HAS_FLIGHT) != 0
+                    && chunk.getLong(offset + FLIGHT_HIGH) == high && chunk.getLong(offset + FLIGHT_LOW) == low) {
+                action.accept(row);
+            }
+        }
+    }
+
+    private String uuid(int row, int field, int flag, StringDictionary pool) {
+        ByteBuffer chunk = chunks[row >>> CHUNK_SHIFT];
+        int offset = offset(row);
+        if ((chunk.getInt(offset + FLAGS) & flag) == 0) {
+            return null;
+        }
+        return pool.intern(new UUID(chunk.getLong(offset + field), chunk.getLong(offset + field + 8)).toString());
+    }
+
+    // Probes the index; rows from end on are ignored, since their records may not be visible yet
+    private int indexOf(long high, long low, int end) {
+        ByteBuffer table = index;
+        int mask = table.capacity() / SLOT_SIZE - 1;
+        ByteBuffer[] current = chunks;
+        for (int slot = UuidHashSet.hash(high, low) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table.getInt(slot * SLOT_SIZE);
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (row < end) {
+                ByteBuffer chunk = current[row >>> CHUNK_SHIFT];
+                int offset = offset(row);
+                if (chunk.getLong(offset + ID_HIGH) == high && chunk.getLong(offset + ID_LOW) == low) {
+                    return row;
+                }
+            }
+        }
+    }
+
+    private static void insert(ByteBuffer table, int mask, long high, long low, int row) {
+        int slot = UuidHashSet.hash(high, low) & mask;
+        while (table.getInt(slot * SLOT_SIZE) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt(slot * SLOT_SIZE, row + 1);
+    }
+
+    // Builds the larger table aside and publishes it whole, so readers never probe a partial one
+    private void rehash(int slots, int rows) {
+        ByteBuffer table = allocate(slots * SLOT_SIZE);
+        int mask = slots - 1;
+        ByteBuffer[] current = chunks;
+        for (int row = 0; row < rows; row++) {
+            ByteBuffer chunk = current[row >>> CHUNK_SHIFT];
+            int offset = offset(row);
+            insert(table, mask, chunk.getLong(offset + ID_HIGH), chunk.getLong(offset + ID_LOW), row);
+        }
+        slotMask = mask;
+        index = table;
+    }
+
+    private ByteBuffer chunkFor(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        ByteBuffer[] current = chunks;
+        if (chunk == current.length) {
+            current = Arrays.copyOf(current, chunk + 1);
+            current[chunk] = allocate(CHUNK_RECORDS * RECORD_SIZE);
+            chunks = current;
+        }
+        return current[chunk];
+    }
+
+    private static int offset(int row) {
+        return (row & (CHUNK_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
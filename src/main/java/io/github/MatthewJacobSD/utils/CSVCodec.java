@@ -0,0 +1,440 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.MatthewJacobSD.utils.Validator.DATE_FORMATTER;
+import static io.github.MatthewJacobSD.utils.Validator.DATETIME_FORMATTER;
+
+/**
+ * Precompiled CSV row reader/writer for a model class.
+ * <p>
+ * The reflective work (field lookup, access checks, choosing a validator and a parser for each
+ * field) is done once per class. Rows are then read and written through method handles bound
+ * to the header order, so the per-row path has no reflection and no string dispatch.
+ *
+ * @param <T> The model type.
+ */
+public final class CSVCodec<T> {
+    private static final ClassValue<CSVCodec<?>> CODECS = new ClassValue<>() {
+        @Override
+        protected CSVCodec<?> computeValue(Class<?> type) {
+            return new CSVCodec<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final Column[] columns;
+    private final Map<String, Column> columnsByName = new HashMap<>();
+    private final List<String> fieldNames;
+    private final List<String> requiredFieldNames;
+    private final Column idColumn;
+
+    /**
+     * Returns the shared codec for a model class, building it on first use.
+     * @param type The model class; it must have a no-arg constructor.
+     * @return The codec for the class.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CSVCodec<T> forClass(Class<T> type) {
+        return (CSVCodec<T>) CODECS.get(type);
+    }
+
+    private CSVCodec(Class<T> type) {
+        this.type = type;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+
+            List<Column> list = new ArrayList<>();
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Column column = new Column(field.getName(), field.getType(),
+                        lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class)),
+                        lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class)),
+                        validatorFor(type.getSimpleName(), field), dictionaryFor(type.getSimpleName(), field));
+                list.add(column);
+                columnsByName.put(column.name, column);
+            }
+            this.columns = list.toArray(new Column[0]);
+            this.fieldNames = list.stream().map(c -> c.name).toList();
+            this.requiredFieldNames = list.stream().filter(c -> !c.type.isPrimitive()).map(c -> c.name).toList();
+            this.idColumn = columnsByName.get("id");
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot build CSV codec for " + type.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * @return The field names in declaration order, which is also the CSV column order on write.
+     */
+    public List<String> fieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Returns the fields a CSV header must contain. Primitive fields, such as a flight's capacity,
+     * may be missing from files written before they were added; rows then keep the field's
+     * default from the no-arg constructor.
+     * @return The required field names in declaration order.
+     */
+    public List<String> requiredFieldNames() {
+        return requiredFieldNames;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public Class<?> fieldType(int column) {
+        return columns[column].type;
+    }
+
+    /**
+     * @param fieldName The field name.
+     * @return The pool the field's parsed values are shared through, or null if they are not pooled.
+     */
+    public StringDictionary dictionary(String fieldName) {
+        Column column = columnsByName.get(fieldName);
+        return column != null ? column.dictionary : null;
+    }
+
+    /**
+     * @param obj The entity.
+     * @param column The column index, in declaration order.
+     * @return The raw field value.
+     */
+    public Object get(T obj, int column) {
+        return columns[column].get(obj);
+    }
+
+    /**
+     * Sets a field without validation, e.g. when restoring an entity from a trusted source.
+     * @param obj The entity.
+     * @param column The column index, in declaration order.
+     * @param value The raw field value.
+     */
+    public void set(T obj, int column, Object value) {
+        Column target = columns[column];
+        target.set(obj, target.dictionary != null && value instanceof String string ? target.dictionary.intern(string) : value);
+    }
+
+    /**
+     * Returns the id of an entity without reflection.
+     * @param obj The entity.
+     * @return The id as a string, or null if the class has no id field or the id is unset.
+     */
+    public String id(Object obj) {
+        if (idColumn == null || obj == null) {
+            return null;
+        }
+        Object value = idColumn.get(obj);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Binds the codec to a header row.
+     * @param headers The CSV headers in file order.
+     * @return A row reader for that column order, or null if a header does not match any field.
+     */
+    public RowReader<T> reader(String[] headers) {
+        Column[] bound = new Column[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            bound[i] = columnsByName.get(headers[i]);
+            if (bound[i] == null) {
+                return null;
+            }
+        }
+        return new RowReader<>(this, bound);
+    }
+
+    /**
+     * Maps a header row to column indexes, for appending rows to an existing file in its own layout.
+     * @param headers The CSV headers in file order.
+     * @return The column index for each header, or null if a header does not match any field
+     *         or a required field is missing.
+     */
+    public int[] columnOrder(String[] headers) {
+        int[] order = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            order[i] = fieldNames.indexOf(headers[i]);
+            if (order[i] < 0) {
+                return null;
+            }
+        }
+        List<String> present = Arrays.asList(headers);
+        return present.containsAll(requiredFieldNames) ? order : null;
+    }
+
+    /**
+     * Appends the header row, without a trailing newline.
+     * @param out The target builder.
+     */
+    public void writeHeader(StringBuilder out) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(columns[i].name);
+        }
+    }
+
+    /**
+     * Appends one entity as a CSV row, without a trailing newline.
+     * @param obj The entity.
+     * @param out The target builder.
+     */
+    public void writeRow(T obj, StringBuilder out) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendValue(columns[i].get(obj), out);
+        }
+    }
+
+    /**
+     * Appends one entity as a CSV row in a given column layout, without a trailing newline.
+     * @param obj The entity.
+     * @param out The target builder.
+     * @param order The column indexes to write, see {@link #columnOrder(String[])}.
+     */
+    public void writeRow(T obj, StringBuilder out, int[] order) {
+        for (int i = 0; i < order.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendValue(columns[order[i]].get(obj), out);
+        }
+    }
+
+    private static void appendValue(Object value, StringBuilder out) {
+        switch (value) {
+            case null -> { }
+            case LocalDate date -> DATE_FORMATTER.formatTo(date, out);
+            case LocalDateTime dateTime -> DATETIME_FORMATTER.formatTo(dateTime, out);
+            default -> {
+                String strValue = value.toString();
+                boolean quote = false;
+                for (int i = 0; i < strValue.length() && !quote; i++) {
+                    char c = strValue.charAt(i);
+                    quote = c == ',' || c == '"' || c == '\n';
+                }
+                if (quote) {
+                    out.append('"').append(strValue.replace("\"", "\"\"")).append('"');
+                } else {
+                    out.append(strValue);
+                }
+            }
+        }
+    }
+
+    // Chooses the field-level validator once, replacing the per-value class/field switch
+    private static FieldValidator validatorFor(String className, Field field) {
+        String fieldName = field.getName();
+        Class<?> fieldType = field.getType();
+
+        if (fieldName.equals("id")) {
+            return Validator::validateUUID;
+        }
+        if (fieldType != String.class) {
+            // Dates are checked on their parsed value, see Column.validate
+            return value -> null;
+        }
+
+        return switch (className + "." + fieldName) {
+            case "Customer.email" -> Validator::validateEmail;
+            case "Customer.phoneNo" -> Validator::validatePhone;
+            case "Customer.firstName", "Customer.lastName", "Customer.address" ->
+                    value -> Validator.validateNonEmpty(value, fieldName);
+            case "Flight.flightNo" -> Validator::validateFlightNumber;
+            case "Flight.depAirport", "Flight.arrAirport" -> value -> Validator.validateAirportCode(value, fieldName);
+            case "Route.name" -> Validator::validateRouteName;
+            default -> value -> null;
+        };
+    }
+
+    // Pools fields that repeat a few values across many rows; airports share one pool with both directions
+    private static StringDictionary dictionaryFor(String className, Field field) {
+        if (field.getType() != String.class) {
+            return null;
+        }
+        return switch (className + "." + field.getName()) {
+            case "Flight.depAirport", "Flight.arrAirport" -> StringDictionary.forName("airport");
+            case "Flight.routeId" -> StringDictionary.forName("routeId");
+            case "Booking.flightId" -> StringDictionary.forName("flightId");
+            case "Booking.customerId" -> StringDictionary.forName("customerId");
+            default -> null;
+        };
+    }
+
+    @FunctionalInterface
+    interface FieldValidator {
+        String validate(String value);
+    }
+
+    private static final class Column {
+        final String name;
+        final Class<?> type;
+        final MethodHandle getter;
+        final MethodHandle setter;
+        final FieldValidator validator;
+        final StringDictionary dictionary;
+
+        Column(String name, Class<?> type, MethodHandle getter, MethodHandle setter, FieldValidator validator,
+               StringDictionary dictionary) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+            this.validator = validator;
+            this.dictionary = dictionary;
+        }
+
+        Object get(Object obj) {
+            try {
+                return (Object) getter.invokeExact(obj);
+            } catch (Throwable t) {
+                throw new IllegalStateException("Cannot read field " + name, t);
+            }
+        }
+
+        void set(Object obj, Object value) {
+            try {
+                setter.invokeExact(obj, value);
+            } catch (Throwable t) {
+                throw new IllegalStateException("Cannot set field " + name, t);
+            }
+        }
+
+        // Returns the field value, or null if a date or number is malformed
+        Object parse(String value) {
+            if (type == int.class) {
+                return Validator.parseInt(value);
+            }
+            if (type == LocalDate.class) {
+                return Validator.parseDate(value);
+            }
+            if (type == LocalDateTime.class) {
+                return Validator.parseDateTime(value);
+            }
+            return value;
+        }
+
+        // Dates are parsed once and range-checked on the parsed value, only if a context is given
+        String validate(String value, Object parsed, ValidationContext context) {
+            if (type == LocalDate.class) {
+                if (parsed == null) {
+                    return ValidationError.INVALID_DATE_FORMAT.message(name);
+                }
+                return context != null ? Validator.validateDate((LocalDate) parsed, name, context) : null;
+            }
+            if (type == LocalDateTime.class) {
+                if (parsed == null) {
+                    return ValidationError.INVALID_DATETIME_FORMAT.message(name);
+                }
+                return context != null ? Validator.validateDateTime((LocalDateTime) parsed, name, context) : null;
+            }
+            if (type == int.class) {
+                return parsed == null ? ValidationError.INVALID_NUMBER.message(name) : validator.validate(value);
+            }
+            return validator.validate(value);
+        }
+    }
+
+    /**
+     * Reads rows whose columns are in a fixed header order.
+     *
+     * @param <T> The model type.
+     */
+    public static final class RowReader<T> {
+        private final CSVCodec<T> codec;
+        private final Column[] columns;
+
+        private RowReader(CSVCodec<T> codec, Column[] columns) {
+            this.codec = codec;
+            this.columns = columns;
+        }
+
+        public int columnCount() {
+            return columns.length;
+        }
+
+        /**
+         * Validates and converts a row of values into a new entity, checking dates against the current time.
+         * @param values The row values, in header order.
+         * @param errors Receives the first field error; may be null.
+         * @return The entity, or null if a field failed validation.
+         */
+        public T read(String[] values, StringBuilder errors) {
+            return read(values, errors, ValidationContext.current());
+        }
+
+        /**
+         * Validates and converts a row of values into a new entity.
+         * @param values The row values, in header order.
+         * @param errors Receives the first field error; may be null.
+         * @param context The moment dates must not precede; null only checks their format, for callers
+         *                that validate the whole entity afterwards.
+         * @return The entity, or null if a field failed validation.
+         */
+        public T read(String[] values, StringBuilder errors, ValidationContext context) {
+            T instance = codec.newInstance();
+            for (int i = 0; i < columns.length; i++) {
+                Column column = columns[i];
+                String value = values[i];
+                if (value.isEmpty()) {
+                    // Primitive fields keep their default
+                    if (!column.type.isPrimitive()) {
+                        column.set(instance, null);
+                    }
+                    continue;
+                }
+
+                Object parsed = column.parse(value);
+                String validationError = column.validate(value, parsed, context);
+                if (validationError != null) {
+                    if (errors != null) {
+                        errors.append("field ").append(column.name).append(": ").append(validationError);
+                    }
+                    return null;
+                }
+                // Only valid values are pooled
+                column.set(instance, column.dictionary != null ? column.dictionary.intern(value) : parsed);
+            }
+            return instance;
+        }
+
+        @Override
+        public String toString() {
+            return codec.type.getSimpleName() + Arrays.stream(columns).map(c -> c.name).toList();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        try {
+            return (T) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to instantiate " + type.getSimpleName(), t);
+        }
+    }
+}
@@ -2,242 +2,421 @@ package io.github.MatthewJacobSD.utils;
 
 import io.github.MatthewJacobSD.services.BaseService;
 
-import java.lang.reflect.Field;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serial;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-
-import static io.github.MatthewJacobSD.utils.Validator.DATE_FORMATTER;
-import static io.github.MatthewJacobSD.utils.Validator.DATETIME_FORMATTER;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CSVHandler {
+    private static final int PARALLEL_CHUNK_SIZE = 8192;
+
+    private static final Metrics.Counter ROWS = Metrics.getInstance().counter("csv.rows");
+    private static final Metrics.Counter REJECTED_FIELD_COUNT = Metrics.getInstance().counter("csv.rejected.fieldCount");
+    private static final Metrics.Counter REJECTED_INVALID_FIELD = Metrics.getInstance().counter("csv.rejected.invalidField");
+    private static final Metrics.Counter REJECTED_INVALID_ENTITY = Metrics.getInstance().counter("csv.rejected.invalidEntity");
+    private static final Metrics.Counter REJECTED_PARSE_ERROR = Metrics.getInstance().counter("csv.rejected.parseError");
+    // Splitting the line and converting its fields, without entity validation
+    private static final Metrics.Histogram PARSE_LATENCY = Metrics.getInstance().histogram("csv.parseLine", true);
 
     public static String toCSV(List<?> objects) {
         if (objects == null || objects.isEmpty()) {
             return "";
         }
-        StringBuilder csvContent = new StringBuilder();
-        processObject(objects.getFirst(), csvContent, true);
-        objects.forEach(obj -> processObject(obj, csvContent, false));
+        StringWriter csvContent = new StringWriter();
+        try {
+            writeCSV(objects, csvContent, true);
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
         return csvContent.toString();
     }
 
-    private static void processObject(Object obj, StringBuilder csvContent, boolean includeHeader) {
-        try {
-            Class<?> objClass = obj.getClass();
-            Field[] fields = objClass.getDeclaredFields();
+    /**
+     * Serializes objects as CSV rows straight to a writer, one row at a time.
+     * <p>
+     * Memory use does not grow with the number of rows; the writer should be buffered.
+     *
+     * @param objects The objects to write; all of the same class.
+     * @param out The target writer.
+     * @param includeHeader Whether to write the header row first.
+     * @return The number of rows written, excluding the header.
+     * @throws IOException If the writer fails.
+     */
+    public static long writeCSV(Iterable<?> objects, Writer out, boolean includeHeader) throws IOException {
+        return writeCSV(objects, out, includeHeader, null);
+    }
 
-            if (includeHeader) {
-                appendFields(fields, csvContent, true, null);
-            } else {
-                appendFields(fields, csvContent, false, obj);
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error processing object: " + e.getMessage());
+    /**
+     * Serializes objects as CSV rows in the column layout of an existing file, e.g. one written
+     * before a field was added, so appended rows line up with its header.
+     *
+     * @param objects The objects to write; all of the same class.
+     * @param out The target writer.
+     * @param headerLine The header line of the file being appended to.
+     * @return The number of rows written.
+     * @throws IOException If the header does not match the class or the writer fails.
+     */
+    public static long appendCSV(Iterable<?> objects, Writer out, String headerLine) throws IOException {
+        Iterator<?> iterator = objects.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        CSVCodec<Object> codec = codecOf(iterator.next());
+        String[] headers = parseCSVLine(headerLine);
+        int[] order = codec.columnOrder(headers);
+        if (order == null) {
+            throw new IOException("CSV headers do not match class fields. Expected: " + codec.fieldNames()
+                    + ", Found: " + Arrays.toString(headers));
         }
+        return writeCSV(objects, out, false, order);
     }
 
-    private static void appendFields(Field[] fields, StringBuilder builder,
-                                     boolean isHeader, Object obj)
-            throws IllegalAccessException {
-        StringBuilder line = new StringBuilder();
-
-        for (Field field : fields) {
-            field.setAccessible(true);
-            Object value = isHeader ? field.getName() : field.get(obj);
-            String formattedValue = formatValue(value);
-            line.append(formattedValue).append(",");
+    // Writes rows in declaration order, or in the given column order
+    private static long writeCSV(Iterable<?> objects, Writer out, boolean includeHeader, int[] order) throws IOException {
+        Iterator<?> iterator = objects.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
         }
-
-        if (!line.isEmpty()) {
-            line.deleteCharAt(line.length() - 1);
-            builder.append(line).append("\n");
+        Object first = iterator.next();
+        CSVCodec<Object> codec = codecOf(first);
+        StringBuilder line = new StringBuilder(256);
+        if (includeHeader) {
+            codec.writeHeader(line);
+            out.append(line).append('\n');
         }
-    }
 
-    private static String formatValue(Object value) {
-        switch (value) {
-            case null -> {
-                return "";
-            }
-            case LocalDate date -> {
-                return date.format(DATE_FORMATTER);
-            }
-            case LocalDateTime dateTime -> {
-                return dateTime.format(DATETIME_FORMATTER);
+        long rows = 0;
+        for (Object obj = first; ; obj = iterator.next()) {
+            line.setLength(0);
+            try {
+                if (order == null) {
+                    codec.writeRow(obj, line);
+                } else {
+                    codec.writeRow(obj, line, order);
+                }
+                out.append(line).append('\n');
+                rows++;
+            } catch (IllegalStateException e) {
+                OutputSink.getInstance().error("❌ Error processing object: " + e.getMessage());
             }
-            default -> {
+            if (!iterator.hasNext()) {
+                return rows;
             }
         }
-        String strValue = value.toString().replace("\"", "\"\"");
-        if (strValue.contains(",") || strValue.contains("\"") || strValue.contains("\n")) {
-            return "\"" + strValue + "\"";
-        }
-        return strValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CSVCodec<Object> codecOf(Object obj) {
+        return (CSVCodec<Object>) CSVCodec.forClass(obj.getClass());
     }
 
     public static <T> List<T> fromCSV(String csvContent, Class<T> clazz, BaseService<T> service) {
-        List<T> objects = new ArrayList<>();
         if (csvContent == null || csvContent.trim().isEmpty()) {
-            return objects;
+            return new ArrayList<>();
         }
 
-        String[] lines = csvContent.split("\n");
-        if (lines.length < 1) {
-            return objects;
+        try (Stream<T> objects = stream(new CSVRecordReader(new StringReader(csvContent)), clazz, service)) {
+            return objects.collect(Collectors.toCollection(ArrayList::new));
         }
+    }
 
-        String[] headers = parseCSVLine(lines[0]);
-        Field[] fields = clazz.getDeclaredFields();
+    /**
+     * Lazily parses and validates the records of a CSV source one row at a time.
+     * <p>
+     * Invalid rows are reported and skipped. Dates are validated against the time the stream was
+     * opened. Closing the returned stream closes the record reader.
+     *
+     * @param records The record source; its first record is the header.
+     * @param clazz The entity class to populate.
+     * @param service Optional service used for entity-level validation.
+     * @return A sequential stream of parsed entities, empty if the headers do not match the class.
+     */
+    public static <T> Stream<T> stream(CSVRecordReader records, Class<T> clazz, BaseService<T> service) {
+        return stream(records, clazz, service, ValidationContext.sample());
+    }
+
+    /**
+     * Lazily parses stored records, checking only the format of each field.
+     * <p>
+     * Unlike {@link #stream(CSVRecordReader, Class, BaseService)}, dates are not required to be in
+     * the future, so rows written on an earlier day, such as past bookings, are still read. Rows
+     * with malformed fields are reported and skipped. Closing the returned stream closes the record reader.
+     *
+     * @param records The record source; its first record is the header.
+     * @param clazz The entity class to populate.
+     * @return A sequential stream of parsed entities, empty if the headers do not match the class.
+     */
+    public static <T> Stream<T> streamStored(CSVRecordReader records, Class<T> clazz) {
+        return stream(records, clazz, null, null);
+    }
 
-        List<String> fieldNames = Arrays.stream(fields).map(Field::getName).toList();
-        if (!Arrays.stream(headers).allMatch(fieldNames::contains)) {
-            System.err.println("❌ CSV headers do not match class fields. Expected: " + fieldNames + ", Found: " + Arrays.toString(headers));
-            return objects;
+    // A null context only checks the format of the fields
+    private static <T> Stream<T> stream(CSVRecordReader records, Class<T> clazz, BaseService<T> service,
+                                        ValidationContext context) {
+        String headerLine = records.header();
+        if (headerLine == null) {
+            return Stream.<T>empty().onClose(() -> closeQuietly(records));
         }
 
-        for (int i = 1; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) {
-                continue;
-            }
-            T obj = parseLine(line, headers, clazz, service);
-            if (obj != null) {
-                objects.add(obj);
-            }
+        String[] headers = parseCSVLine(headerLine);
+        CSVCodec<T> codec = CSVCodec.forClass(clazz);
+        CSVCodec.RowReader<T> rowReader = codec.reader(headers);
+        if (rowReader == null) {
+            OutputSink.getInstance().error("❌ CSV headers do not match class fields. Expected: " + codec.fieldNames() + ", Found: " + Arrays.toString(headers));
+            return Stream.<T>empty().onClose(() -> closeQuietly(records));
         }
 
-        return objects;
+        Events.CsvBatch event = new Events.CsvBatch();
+        event.begin();
+        long[] accepted = new long[1];
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (records.hasNext()) {
+                    T obj = parseLine(records.next(), rowReader, clazz, service, context);
+                    if (obj != null) {
+                        accepted[0]++;
+                        action.accept(obj);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        // Rows are counted once per stream rather than per row
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            ROWS.add(records.getRecordCount());
+            commitBatchEvent(event, clazz, records.getRecordCount(), accepted[0], false);
+            closeQuietly(records);
+        });
     }
 
-    private static <T> T parseLine(String line, String[] headers, Class<T> clazz, BaseService<T> service) {
-        try {
-            String[] values = parseCSVLine(line);
-            if (values.length != headers.length) {
-                System.err.println("❌ Mismatched field count in CSV line: " + line);
-                return null;
-            }
+    /**
+     * Parses and validates the records of a CSV source on a fork-join pool.
+     * <p>
+     * Records are read sequentially, so chunks always start at a record boundary even when
+     * quoted fields contain line breaks. Each chunk is parsed, validated and filtered in
+     * parallel. At most a few chunks per worker are in flight, which keeps memory bounded.
+     *
+     * @param records The record source; its first record is the header.
+     * @param clazz The entity class to populate.
+     * @param service Optional service used for entity-level validation; must be thread-safe.
+     * @param filter Extra per-entity check run on the workers, e.g. reference validation.
+     * @param action Receives every accepted entity.
+     * @param ordered If true, {@code action} runs on the calling thread in file order;
+     *                otherwise it runs on the workers as soon as a chunk is done and must be thread-safe.
+     * @param pool The pool to run on.
+     * @return The number of entities passed to {@code action}.
+     */
+    public static <T> long forEachParallel(CSVRecordReader records, Class<T> clazz, BaseService<T> service,
+                                           Predicate<? super T> filter, Consumer<? super T> action,
+                                           boolean ordered, ForkJoinPool pool) {
+        String headerLine = records.header();
+        if (headerLine == null) {
+            return 0;
+        }
 
-            T instance;
-            try {
-                instance = clazz.getDeclaredConstructor().newInstance();
-            } catch (NoSuchMethodException e) {
-                System.err.println("❌ No no-arg constructor found for " + clazz.getSimpleName());
-                return null;
-            } catch (Exception e) {
-                System.err.println("❌ Failed to instantiate " + clazz.getSimpleName() + ": " + e.getMessage());
-                return null;
-            }
+        String[] headers = parseCSVLine(headerLine);
+        CSVCodec<T> codec = CSVCodec.forClass(clazz);
+        CSVCodec.RowReader<T> rowReader = codec.reader(headers);
+        if (rowReader == null) {
+            OutputSink.getInstance().error("❌ CSV headers do not match class fields. Expected: " + codec.fieldNames() + ", Found: " + Arrays.toString(headers));
+            return 0;
+        }
 
-            Field[] fields = clazz.getDeclaredFields();
-            for (int i = 0; i < headers.length; i++) {
-                String header = headers[i];
-                String value = values[i];
-
-                for (Field field : fields) {
-                    field.setAccessible(true);
-                    if (field.getName().equals(header)) {
-                        String validationError = validateFieldValue(field, value, clazz.getSimpleName());
-                        if (validationError != null) {
-                            System.err.println("❌ Validation error for " + clazz.getSimpleName() + " field " + header + ": " + validationError);
-                            return null;
-                        }
-                        setFieldValue(instance, field, value);
-                        break;
-                    }
-                }
+        ValidationContext context = ValidationContext.sample();
+        Events.CsvBatch event = new Events.CsvBatch();
+        event.begin();
+        LongAdder accepted = new LongAdder();
+        Consumer<? super T> workerAction = ordered ? null : obj -> {
+            action.accept(obj);
+            accepted.increment();
+        };
+        int maxInFlight = Math.max(2, pool.getParallelism() * 4);
+        ArrayDeque<ForkJoinTask<List<T>>> pending = new ArrayDeque<>();
+
+        while (records.hasNext()) {
+            String[] chunk = new String[PARALLEL_CHUNK_SIZE];
+            int size = 0;
+            while (size < chunk.length && records.hasNext()) {
+                chunk[size++] = records.next();
             }
+            ROWS.add(size);
+            pending.addLast(pool.submit(new ChunkTask<>(chunk, 0, size, rowReader, clazz, service, context, filter, workerAction)));
 
-            if (service != null) {
-                String entityError = service.isValidEntity(instance);
-                if (entityError != null) {
-                    System.err.println("❌ Entity validation failed for " + clazz.getSimpleName() + ": " + entityError);
-                    return null;
-                }
+            while (pending.size() >= maxInFlight) {
+                drain(pending.removeFirst(), action, accepted);
             }
-
-            return instance;
-        } catch (Exception e) {
-            System.err.println("❌ Error parsing CSV line '" + line + "': " + e.getMessage());
-            return null;
         }
+        while (!pending.isEmpty()) {
+            drain(pending.removeFirst(), action, accepted);
+        }
+        commitBatchEvent(event, clazz, records.getRecordCount(), accepted.sum(), true);
+        return accepted.sum();
     }
 
-    private static String validateFieldValue(Field field, String value, String className) {
-        if (value.isEmpty()) {
-            return null;
+    private static void commitBatchEvent(Events.CsvBatch event, Class<?> clazz, long rows, long accepted, boolean parallel) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.entityType = clazz;
+            event.rows = rows;
+            event.accepted = accepted;
+            event.rejected = rows - accepted;
+            event.parallel = parallel;
+            event.commit();
         }
+    }
 
-        String fieldName = field.getName();
-        Class<?> fieldType = field.getType();
+    private static <T> void drain(ForkJoinTask<List<T>> task, Consumer<? super T> action, LongAdder accepted) {
+        List<T> results = task.join();
+        if (results != null) {
+            results.forEach(action);
+            accepted.add(results.size());
+        }
+    }
 
-        if (fieldName.equals("id")) {
-            return Validator.validateUUID(value);
+    // Parses a slice of records, splitting in halves until the slice is small enough
+    private static final class ChunkTask<T> extends RecursiveTask<List<T>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private static final int LEAF_SIZE = 512;
+
+        // Fork-join tasks are Serializable by inheritance only; these are never serialized
+        private final String[] lines;
+        private final int from;
+        private final int to;
+        private final transient CSVCodec.RowReader<T> rowReader;
+        private final Class<T> clazz;
+        private final transient BaseService<T> service;
+        private final transient ValidationContext context;
+        private final transient Predicate<? super T> filter;
+        private final transient Consumer<? super T> workerAction;
+
+        ChunkTask(String[] lines, int from, int to, CSVCodec.RowReader<T> rowReader, Class<T> clazz,
+                  BaseService<T> service, ValidationContext context, Predicate<? super T> filter,
+                  Consumer<? super T> workerAction) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+            this.rowReader = rowReader;
+            this.clazz = clazz;
+            this.service = service;
+            this.context = context;
+            this.filter = filter;
+            this.workerAction = workerAction;
         }
 
-        if (fieldType == String.class) {
-            switch (className) {
-                case "Customer":
-                    switch (fieldName) {
-                        case "email" -> {
-                            return Validator.validateEmail(value);
-                        }
-                        case "phoneNo" -> {
-                            return Validator.validatePhone(value);
-                        }
-                        case "firstName", "lastName", "address" -> {
-                            return Validator.validateNonEmpty(value, fieldName);
-                        }
-                    }
-                    break;
-                case "Flight":
-                    if (fieldName.equals("flightNo")) {
-                        return Validator.validateFlightNumber(value);
-                    } else if (fieldName.equals("depAirport") || fieldName.equals("arrAirport")) {
-                        return Validator.validateAirportCode(value, fieldName);
-                    }
-                    break;
-                case "Route":
-                    if (fieldName.equals("name")) {
-                        return Validator.validateRouteName(value);
-                    }
-                    break;
+        @Override
+        protected List<T> compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                ChunkTask<T> left = new ChunkTask<>(lines, from, mid, rowReader, clazz, service, context, filter, workerAction);
+                ChunkTask<T> right = new ChunkTask<>(lines, mid, to, rowReader, clazz, service, context, filter, workerAction);
+                right.fork();
+                List<T> leftResults = left.compute();
+                List<T> rightResults = right.join();
+                if (leftResults == null) {
+                    return null;
+                }
+                leftResults.addAll(rightResults);
+                return leftResults;
             }
-        } else if (fieldType == LocalDate.class) {
-            return Validator.validateDate(value, fieldName);
-        } else if (fieldType == LocalDateTime.class) {
-            return Validator.validateDateTime(value, fieldName);
-        }
 
-        return null;
+            List<T> results = workerAction == null ? new ArrayList<>(to - from) : null;
+            for (int i = from; i < to; i++) {
+                T obj = parseLine(lines[i], rowReader, clazz, service, context);
+                if (obj == null || (filter != null && !filter.test(obj))) {
+                    continue;
+                }
+                if (results != null) {
+                    results.add(obj);
+                } else {
+                    workerAction.accept(obj);
+                }
+            }
+            return results;
+        }
     }
 
-    private static void setFieldValue(Object instance, Field field, String value) throws IllegalAccessException {
-        if (value.isEmpty()) {
-            field.set(instance, null);
-            return;
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            OutputSink.getInstance().error("❌ Error closing CSV source: " + e.getMessage());
         }
+    }
 
-        Class<?> fieldType = field.getType();
+    // Each date is range-checked once: by the service if there is one, otherwise by the row reader,
+    // and not at all without a context
+    private static <T> T parseLine(String line, CSVCodec.RowReader<T> rowReader, Class<T> clazz,
+                                   BaseService<T> service, ValidationContext context) {
         try {
-            if (fieldType == String.class) {
-                field.set(instance, value);
-            } else if (fieldType == LocalDate.class) {
-                field.set(instance, LocalDate.parse(value, DATE_FORMATTER));
-            } else if (fieldType == LocalDateTime.class) {
-                field.set(instance, LocalDateTime.parse(value, DATETIME_FORMATTER));
-            } else {
-                System.err.println("❌ Unsupported field type: " + fieldType.getSimpleName() + " for field " + field.getName());
+            StringBuilder error = new StringBuilder();
+            T instance;
+            // Every line is timed once, whether it is read, rejected or fails to parse
+            long start = PARSE_LATENCY.start();
+            try {
+                String[] values = parseCSVLine(line);
+                if (values.length < rowReader.columnCount() && countFields(line) == rowReader.columnCount()) {
+                    // Empty trailing values, such as an unset capacity, were dropped by the parser
+                    int parsed = values.length;
+                    values = Arrays.copyOf(values, rowReader.columnCount());
+                    Arrays.fill(values, parsed, values.length, "");
+                }
+                if (values.length != rowReader.columnCount()) {
+                    REJECTED_FIELD_COUNT.increment();
+                    OutputSink.getInstance().reject(() -> "❌ Mismatched field count in CSV line: " + line);
+                    return null;
+                }
+                instance = rowReader.read(values, error, service == null ? context : null);
+            } finally {
+                PARSE_LATENCY.stop(start);
+            }
+            if (instance == null) {
+                REJECTED_INVALID_FIELD.increment();
+                OutputSink.getInstance().reject(() -> "❌ Validation error for " + clazz.getSimpleName() + " " + error);
+                return null;
+            }
+
+            if (service != null) {
+                String entityError = service.isValidEntity(instance, context);
+                if (entityError != null) {
+                    REJECTED_INVALID_ENTITY.increment();
+                    OutputSink.getInstance().reject(() -> "❌ Entity validation failed for " + clazz.getSimpleName() + ": " + entityError);
+                    return null;
+                }
             }
-        } catch (DateTimeParseException e) {
-            System.err.println("❌ Invalid date format for field " + field.getName() + ": " + value);
+
+            return instance;
+        } catch (Exception e) {
+            REJECTED_PARSE_ERROR.increment();
+            OutputSink.getInstance().reject(() -> "❌ Error parsing CSV line '" + line + "': " + e.getMessage());
+            return null;
         }
     }
 
-    private static String[] parseCSVLine(String line) {
+    static String[] parseCSVLine(String line) {
         List<String> values = new ArrayList<>();
         boolean inQuotes = false;
         StringBuilder field = new StringBuilder();
@@ -252,7 +431,7 @@ public class CSVHandler {
 
             if (c == ',' && !inQuotes) {
                 values.add(field.toString().trim());
-                field = new StringBuilder();
+                field.setLength(0);
                 continue;
             }
 
@@ -270,6 +449,21 @@ public class CSVHandler {
         return values.toArray(new String[0]);
     }
 
+    // Counts the fields of a line, including empty trailing ones
+    private static int countFields(String line) {
+        int fields = 1;
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
     public static String[] parseHeaders(String headerLine) throws Exception {
         return parseCSVLine(headerLine);
     }
@@ -0,0 +1,169 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads CSV records one at a time from a {@link Reader}.
+ * <p>
+ * A record ends at a line break outside of double quotes, so quoted fields may span several
+ * lines. Only the current record is held in memory. The first record is treated as the header
+ * and is available through {@link #header()}; iteration yields the data records after it.
+ * Subclasses may read records from other sources by overriding {@link #readRecord()}.
+ */
+public class CSVRecordReader implements Iterator<String>, Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Metrics.Histogram FILL_LATENCY = Metrics.getInstance().histogram("file.read", false);
+    private static final Metrics.Counter CHARS_READ = Metrics.getInstance().counter("file.charsRead");
+
+    private final Reader reader;
+    private final IntConsumer onRecord;
+    private final char[] buffer;
+    private final StringBuilder record = new StringBuilder(256);
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean headerRead;
+    private String header;
+    private String next;
+    private int recordCount;
+    private long filled;
+
+    public CSVRecordReader(Reader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * @param reader The character source, closed together with this reader.
+     * @param onRecord Optional callback receiving the running count of data records read.
+     */
+    public CSVRecordReader(Reader reader, IntConsumer onRecord) {
+        this.reader = reader;
+        this.onRecord = onRecord;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * For subclasses that supply records through {@link #readRecord()}.
+     * @param onRecord Optional callback receiving the running count of data records read.
+     */
+    protected CSVRecordReader(IntConsumer onRecord) {
+        this.reader = null;
+        this.onRecord = onRecord;
+        this.buffer = null;
+    }
+
+    /**
+     * Returns the header record, reading it on first access.
+     * @return The header record or null if the source is empty.
+     */
+    public String header() {
+        if (!headerRead) {
+            headerRead = true;
+            header = readRecord();
+        }
+        return header;
+    }
+
+    @Override
+    public boolean hasNext() {
+        header();
+        if (next == null) {
+            next = readRecord();
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String result = next;
+        next = null;
+        recordCount++;
+        if (onRecord != null) {
+            onRecord.accept(recordCount);
+        }
+        return result;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return How far into the source reading has got, in characters; subclasses may count bytes.
+     */
+    public long getPosition() {
+        return filled - (limit - position);
+    }
+
+    /**
+     * Reads the next non-blank record, skipping empty lines.
+     * @return The trimmed record without its line break, or null at the end of input.
+     */
+    protected String readRecord() {
+        try {
+            while (true) {
+                record.setLength(0);
+                boolean inQuotes = false;
+                boolean sawData = false;
+
+                while (true) {
+                    if (position == limit && !fill()) {
+                        break;
+                    }
+                    char c = buffer[position++];
+                    sawData = true;
+                    if (c == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (c == '\n' && !inQuotes) {
+                        break;
+                    }
+                    record.append(c);
+                }
+
+                if (!sawData) {
+                    return null;
+                }
+                String line = record.toString().trim();
+                if (!line.isEmpty()) {
+                    return line;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        long start = FILL_LATENCY.start();
+        int read = reader.read(buffer, 0, buffer.length);
+        FILL_LATENCY.stop(start);
+        if (read <= 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        filled += read;
+        CHARS_READ.add(read);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+}
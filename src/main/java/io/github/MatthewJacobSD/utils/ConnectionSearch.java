@@ -0,0 +1,409 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Flight;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Multi-leg itinerary search over a flight schedule, based on the connection scan algorithm.
+ * <p>
+ * Flights are stored once as parallel arrays sorted by departure time, with airports mapped to
+ * small ints. A query binary-searches the first departure and scans forward in time. Each airport
+ * holds the partial itineraries that have arrived there and are still inside their connection
+ * window, and every flight leaving the airport extends them. Two bounds keep the scan small:
+ * <ul>
+ *     <li>a breadth-first search over the reversed route map gives the fewest legs from each airport
+ *     to the destination, so partial itineraries that cannot arrive within the leg limit are never
+ *     created;</li>
+ *     <li>once k itineraries are known, anything that cannot beat the worst of them is dropped, and an
+ *     earliest-arrival scan stops at the first departure after that itinerary's arrival.</li>
+ * </ul>
+ * The engine is immutable and thread-safe; build a new one when flights change.
+ */
+public final class ConnectionSearch {
+    public static final Duration DEFAULT_MIN_CONNECTION = Duration.ofMinutes(45);
+    public static final Duration DEFAULT_MAX_CONNECTION = Duration.ofHours(8);
+    public static final int DEFAULT_MAX_LEGS = 3;
+    public static final int DEFAULT_LIMIT = 5;
+
+    private final Map<String, Integer> airportIds = new HashMap<>();
+    private final int[] from;
+    private final int[] to;
+    private final long[] departures;
+    private final long[] arrivals;
+    private final Flight[] flights;
+    // Distinct airports with a flight into each airport
+    private final int[][] inbound;
+
+    /**
+     * How the returned itineraries are ranked.
+     */
+    public enum Order {
+        /** Earliest arrival first, then fewest legs. */
+        EARLIEST_ARRIVAL,
+        /** Fewest legs first, then earliest arrival. */
+        FEWEST_LEGS
+    }
+
+    /**
+     * Search parameters. Null optional values take the defaults.
+     *
+     * @param origin The departure airport code.
+     * @param destination The arrival airport code.
+     * @param earliestDeparture The earliest departure of the first leg.
+     * @param latestDeparture The latest departure of the first leg; defaults to one day after the earliest.
+     * @param minConnection The minimum time between arriving and the next departure.
+     * @param maxConnection The maximum time between arriving and the next departure.
+     * @param maxLegs The maximum number of flights per itinerary.
+     * @param limit The maximum number of itineraries to return.
+     * @param order How itineraries are ranked.
+     */
+    public record Query(String origin, String destination, LocalDateTime earliestDeparture,
+                        LocalDateTime latestDeparture, Duration minConnection, Duration maxConnection,
+                        Integer maxLegs, Integer limit, Order order) {
+        public Query {
+            if (origin == null || destination == null || earliestDeparture == null) {
+                throw new IllegalArgumentException("Origin, destination and earliest departure are required.");
+            }
+            latestDeparture = latestDeparture != null ? latestDeparture : earliestDeparture.plusDays(1);
+            minConnection = minConnection != null ? minConnection : DEFAULT_MIN_CONNECTION;
+            maxConnection = maxConnection != null ? maxConnection : DEFAULT_MAX_CONNECTION;
+            maxLegs = maxLegs != null ? maxLegs : DEFAULT_MAX_LEGS;
+            limit = limit != null ? limit : DEFAULT_LIMIT;
+            order = order != null ? order : Order.EARLIEST_ARRIVAL;
+            if (latestDeparture.isBefore(earliestDeparture)) {
+                throw new IllegalArgumentException("Latest departure must not be before earliest departure.");
+            }
+            if (minConnection.isNegative() || maxConnection.compareTo(minConnection) < 0) {
+                throw new IllegalArgumentException("Connection times must satisfy 0 <= min <= max.");
+            }
+            if (maxLegs < 1 || limit < 1) {
+                throw new IllegalArgumentException("Max legs and limit must be at least 1.");
+            }
+        }
+
+        /**
+         * @return A query with default connection times, leg limit and ranking.
+         */
+        public static Query of(String origin, String destination, LocalDateTime earliestDeparture) {
+            return new Query(origin, destination, earliestDeparture, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * A sequence of connecting flights.
+     *
+     * @param flights The legs in travel order.
+     */
+    public record Itinerary(List<Flight> flights) {
+        public int legs() {
+            return flights.size();
+        }
+
+        public LocalDateTime departure() {
+            return flights.getFirst().getDepTime();
+        }
+
+        public LocalDateTime arrival() {
+            return flights.getLast().getArrTime();
+        }
+
+        public Duration duration() {
+            return Duration.between(departure(), arrival());
+        }
+    }
+
+    private ConnectionSearch(List<Flight> schedule) {
+        int n = schedule.size();
+        this.from = new int[n];
+        this.to = new int[n];
+        this.departures = new long[n];
+        this.arrivals = new long[n];
+        this.flights = sortByDeparture(schedule);
+
+        for (int i = 0; i < n; i++) {
+            Flight flight = flights[i];
+            from[i] = airportId(flight.getDepAirport());
+            to[i] = airportId(flight.getArrAirport());
+            departures[i] = seconds(flight.getDepTime());
+            arrivals[i] = seconds(flight.getArrTime());
+        }
+        this.inbound = inboundAirports(airportIds.size(), from, to);
+    }
+
+    // Sorts on primitive keys: departure second relative to the earliest in the high bits, list index in the low bits
+    private static Flight[] sortByDeparture(List<Flight> schedule) {
+        int n = schedule.size();
+        long[] keys = new long[n];
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            keys[i] = seconds(schedule.get(i).getDepTime());
+            earliest = Math.min(earliest, keys[i]);
+            latest = Math.max(latest, keys[i]);
+        }
+        if (n > 0 && latest - earliest >= 1L << 31) {
+            // Schedules spanning more than 68 years fall back to comparing the objects
+            return schedule.stream().sorted(Comparator.comparing(Flight::getDepTime)).toArray(Flight[]::new);
+        }
+        for (int i = 0; i < n; i++) {
+            keys[i] = (keys[i] - earliest) << 32 | i;
+        }
+        Arrays.parallelSort(keys);
+        Flight[] sorted = new Flight[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = schedule.get((int) keys[i]);
+        }
+        return sorted;
+    }
+
+    // Distinct departure airports of the flights into each airport
+    private static int[][] inboundAirports(int airports, int[] from, int[] to) {
+        long[] routes = new long[from.length];
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = (long) to[i] << 32 | from[i];
+        }
+        Arrays.parallelSort(routes);
+        int[] counts = new int[airports];
+        int distinct = 0;
+        for (int i = 0; i < routes.length; i++) {
+            if (i == 0 || routes[i] != routes[i - 1]) {
+                routes[distinct++] = routes[i];
+                counts[(int) (routes[i] >>> 32)]++;
+            }
+        }
+        int[][] inbound = new int[airports][];
+        for (int airport = 0; airport < airports; airport++) {
+            inbound[airport] = new int[counts[airport]];
+        }
+        for (int i = distinct - 1; i >= 0; i--) {
+            int arrival = (int) (routes[i] >>> 32);
+            inbound[arrival][--counts[arrival]] = (int) routes[i];
+        }
+        return inbound;
+    }
+
+    /**
+     * Builds the engine from a schedule. Flights without airports or times, or that do not arrive
+     * after they depart, are ignored.
+     * @param schedule The flights.
+     * @return The engine.
+     */
+    public static ConnectionSearch build(Iterable<Flight> schedule) {
+        List<Flight> usable = new ArrayList<>();
+        for (Flight flight : schedule) {
+            if (flight.getDepAirport() != null && flight.getArrAirport() != null
+                    && !flight.getDepAirport().equals(flight.getArrAirport())
+                    && flight.getDepTime() != null && flight.getArrTime() != null
+                    && flight.getArrTime().isAfter(flight.getDepTime())) {
+                usable.add(flight);
+            }
+        }
+        return new ConnectionSearch(usable);
+    }
+
+    /**
+     * @return The number of flights in the schedule.
+     */
+    public int size() {
+        return flights.length;
+    }
+
+    /**
+     * Finds the best itineraries for a query.
+     * @param query The search parameters.
+     * @return Up to {@code query.limit()} itineraries, best first; empty if none exist.
+     */
+    public List<Itinerary> search(Query query) {
+        Integer origin = airportIds.get(query.origin());
+        Integer destination = airportIds.get(query.destination());
+        if (origin == null || destination == null || origin.equals(destination)) {
+            return List.of();
+        }
+        int maxLegs = query.maxLegs();
+        int[] legsToDestination = legsTo(destination, maxLegs);
+        if (legsToDestination[origin] > maxLegs) {
+            return List.of();
+        }
+
+        long minConnection = query.minConnection().toSeconds();
+        long maxConnection = query.maxConnection().toSeconds();
+        Comparator<Label> ranking = query.order() == Order.FEWEST_LEGS
+                ? Comparator.<Label>comparingInt(label -> label.legs).thenComparingLong(label -> label.arrival)
+                : Comparator.<Label>comparingLong(label -> label.arrival).thenComparingInt(label -> label.legs);
+        // Worst result at the head, so it can be replaced when a better one is found
+        PriorityQueue<Label> results = new PriorityQueue<>(ranking.reversed());
+        int limit = query.limit();
+
+        // Labels waiting at each airport, created on first arrival
+        List<List<Label>> waiting = new ArrayList<>(Collections.nCopies(inbound.length, null));
+        long start = seconds(query.earliestDeparture());
+        long scanUntil = seconds(query.latestDeparture());
+        waiting.set(origin, new ArrayList<>(List.of(new Label(-1, null, 0, start, start, scanUntil))));
+
+        for (int i = firstDepartingAt(start); i < flights.length && departures[i] <= scanUntil; i++) {
+            if (query.order() == Order.EARLIEST_ARRIVAL && results.size() == limit
+                    && departures[i] >= results.peek().arrival) {
+                break;
+            }
+            List<Label> labels = waiting.get(from[i]);
+            if (labels == null || labels.isEmpty()) {
+                continue;
+            }
+            int next = to[i];
+            int kept = 0;
+            for (int j = 0; j < labels.size(); j++) {
+                Label label = labels.get(j);
+                if (label.expiresAt < departures[i]) {
+                    // Connection windows only close as the scan moves forward
+                    continue;
+                }
+                labels.set(kept++, label);
+                int legs = label.legs + 1;
+                if (label.readyAt > departures[i] || legs + legsToDestination[next] > maxLegs
+                        || visits(label, next, origin)) {
+                    continue;
+                }
+                if (results.size() == limit
+                        && !isBetter(query.order(), arrivals[i], legs + legsToDestination[next], results.peek())) {
+                    continue;
+                }
+
+                Label extended = new Label(i, label, legs, arrivals[i],
+                        arrivals[i] + minConnection, arrivals[i] + maxConnection);
+                if (next == destination) {
+                    results.add(extended);
+                    if (results.size() > limit) {
+                        results.poll();
+                    }
+                } else {
+                    List<Label> arrived = waiting.get(next);
+                    if (arrived == null) {
+                        arrived = new ArrayList<>();
+                        waiting.set(next, arrived);
+                    }
+                    arrived.add(extended);
+                    scanUntil = Math.max(scanUntil, extended.expiresAt);
+                }
+            }
+            labels.subList(kept, labels.size()).clear();
+        }
+
+        List<Label> ranked = new ArrayList<>(results);
+        ranked.sort(ranking);
+        List<Itinerary> itineraries = new ArrayList<>(ranked.size());
+        for (Label label : ranked) {
+            itineraries.add(toItinerary(label));
+        }
+        return itineraries;
+    }
+
+    // Whether an itinerary with at least this arrival and leg count could rank above the worst result
+    private static boolean isBetter(Order order, long arrival, int legs, Label worst) {
+        if (order == Order.FEWEST_LEGS) {
+            return legs < worst.legs || (legs == worst.legs && arrival < worst.arrival);
+        }
+        return arrival < worst.arrival || (arrival == worst.arrival && legs < worst.legs);
+    }
+
+    // Whether the airport already appears on the partial itinerary, which would make a loop
+    private boolean visits(Label label, int airport, int origin) {
+        if (airport == origin) {
+            return true;
+        }
+        for (Label current = label; current.flight >= 0; current = current.previous) {
+            if (to[current.flight] == airport) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Fewest legs from every airport to the destination, ignoring times; maxLegs + 1 if not reachable within maxLegs
+    private int[] legsTo(int destination, int maxLegs) {
+        int[] legs = new int[inbound.length];
+        Arrays.fill(legs, maxLegs + 1);
+        legs[destination] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(destination);
+        while (!queue.isEmpty()) {
+            int airport = queue.poll();
+            if (legs[airport] == maxLegs) {
+                continue;
+            }
+            for (int previous : inbound[airport]) {
+                if (legs[previous] > legs[airport] + 1) {
+                    legs[previous] = legs[airport] + 1;
+                    queue.add(previous);
+                }
+            }
+        }
+        return legs;
+    }
+
+    private int firstDepartingAt(long time) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Itinerary toItinerary(Label label) {
+        List<Flight> legs = new ArrayList<>(label.legs);
+        for (Label current = label; current.flight >= 0; current = current.previous) {
+            legs.add(flights[current.flight]);
+        }
+        Collections.reverse(legs);
+        return new Itinerary(Collections.unmodifiableList(legs));
+    }
+
+    private int airportId(String code) {
+        Integer id = airportIds.get(code);
+        if (id == null) {
+            id = airportIds.size();
+            airportIds.put(code, id);
+        }
+        return id;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // A partial itinerary ending at the arrival of a flight; the origin label has no flight
+    private static final class Label {
+        final int flight;
+        final Label previous;
+        final int legs;
+        final long arrival;
+        final long readyAt;
+        final long expiresAt;
+
+        Label(int flight, Label previous, int legs, long arrival, long readyAt, long expiresAt) {
+            this.flight = flight;
+            this.previous = previous;
+            this.legs = legs;
+            this.arrival = arrival;
+            this.readyAt = readyAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -4,20 +4,21 @@ import java.util.Scanner;
 
 public class ConsoleUI {
     private final Scanner scanner;
+    private final OutputSink out = OutputSink.getInstance();
 
     public ConsoleUI(Scanner scanner) {
         this.scanner = scanner;
     }
 
     public void showMainMenu() {
-        System.out.println("\n✈️ Airline Online Booking System");
-        System.out.println("━━━━━━━━━━━━━━━━━━━━━━━");
-        System.out.println("1. Manage Customer Data");
-        System.out.println("2. Manage Booking Data");
-        System.out.println("3. Manage Flight Data");
-        System.out.println("4. Manage Route Data");
-        System.out.println("5. Exit");
-        System.out.print("🔄 Choose an option: ");
+        out.println("\n✈️ Airline Online Booking System");
+        out.println("━━━━━━━━━━━━━━━━━━━━━━━");
+        out.println("1. Manage Customer Data");
+        out.println("2. Manage Booking Data");
+        out.println("3. Manage Flight Data");
+        out.println("4. Manage Route Data");
+        out.println("5. Exit");
+        out.print("🔄 Choose an option: ");
     }
 
     public int getUserChoice() {
@@ -30,46 +31,77 @@ public class ConsoleUI {
     }
 
     public void printExitMessage() {
-        System.out.println("👋 Exiting system. Goodbye!");
+        out.println("👋 Exiting system. Goodbye!");
     }
 
     public void showSectionHeader(String title) {
-        System.out.println("\n" + title);
-        System.out.println("―".repeat(title.length()));
+        out.println("\n" + title);
+        out.println("―".repeat(title.length()));
     }
 
     public void showStatus(String message) {
-        System.out.println("• " + message);
+        out.println("• " + message);
     }
 
-    public void showProgress(int count) {
-        if (count % 100 == 0) {
-            System.out.print("⏳ Processed " + count + " lines\r");
-        }
+    /**
+     * Starts a progress display for one pass over an input of known size.
+     * @param total The size of the input, e.g. in bytes, for the time left; -1 if unknown.
+     * @return The progress display.
+     */
+    public OutputSink.Progress startProgress(long total) {
+        return out.progress(total);
+    }
+
+    /**
+     * Lists one entity; only rendered when the output level is verbose.
+     * @param entity The entity.
+     */
+    public void showEntity(Object entity) {
+        out.entity("📋 ", entity);
+    }
+
+    /**
+     * Reports one rejected row; printed when the output level is verbose, counted otherwise.
+     * @param message The reason.
+     */
+    public void showRejected(String message) {
+        out.reject(() -> "✗ " + message);
+    }
+
+    /**
+     * @return The number of rows rejected so far, shown or not.
+     */
+    public long getRejectedCount() {
+        return out.getRejectedCount();
     }
 
     public void showSuccess(String message) {
-        System.out.println("✓ " + message);
+        out.println("✓ " + message);
     }
 
     public void showWarning(String s) {
-        System.out.println("⚠️  " + s);
+        out.println("⚠️  " + s);
     }
 
     public void showError(String message) {
-        System.err.println("✗ " + message);
+        out.error("✗ " + message);
     }
 
     public void showPreview(String[] lines) {
-        System.out.println("━━━━━━━━━━━━━━━━━━━━");
+        out.println("━━━━━━━━━━━━━━━━━━━━");
         for (String line : lines) {
-            System.out.println("│ " + line);
+            out.println("│ " + line);
         }
-        System.out.println("━━━━━━━━━━━━━━━━━━━━");
+        out.println("━━━━━━━━━━━━━━━━━━━━");
     }
 
     public boolean confirmActionChoice(String prompt) {
-        System.out.print(prompt + " (y/n): ");
+        out.print(prompt + " (y/n): ");
         return !scanner.nextLine().trim().equalsIgnoreCase("y");
     }
-}
\ No newline at end of file
+
+    // Writes buffered listings before other code prints directly
+    public void flush() {
+        out.flush();
+    }
+}
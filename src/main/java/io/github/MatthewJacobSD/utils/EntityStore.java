@@ -0,0 +1,175 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Flight;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The entities of one CSV file held in memory by ID, for the API server and the batch processor.
+ * <p>
+ * Flights are kept in a {@link FlightStore} and bookings in a {@link BookingStore}, so neither is
+ * held as one object per row, and an entity is only built when it is read. Other types, and
+ * entities a store cannot encode, such as one with an upper-case ID, are kept in a map.
+ * Entities are only added. Lookups may run while entities are added.
+ *
+ * @param <T> The model type.
+ */
+public final class EntityStore<T> {
+    private final CSVCodec<T> codec;
+    private final FlightStore flights;
+    private final BookingStore bookings;
+    private final Map<String, T> others = new ConcurrentHashMap<>();
+
+    private EntityStore(Class<T> type) {
+        this.codec = CSVCodec.forClass(type);
+        this.flights = type == Flight.class ? new FlightStore() : null;
+        this.bookings = type == Booking.class ? new BookingStore() : null;
+    }
+
+    /**
+     * @param type The model class.
+     * @return An empty store, compact for flights and bookings.
+     */
+    public static <T> EntityStore<T> of(Class<T> type) {
+        return new EntityStore<>(type);
+    }
+
+    /**
+     * @return The flight columns, or null if this store does not hold flights.
+     */
+    public FlightStore flights() {
+        return flights;
+    }
+
+    /**
+     * @return The booking records, or null if this store does not hold bookings.
+     */
+    public BookingStore bookings() {
+        return bookings;
+    }
+
+    public int size() {
+        return (flights != null ? flights.size() : 0) + (bookings != null ? bookings.size() : 0) + others.size();
+    }
+
+    /**
+     * @param id The ID.
+     * @return The entity with that ID, built anew if it is held compactly, or null if there is none.
+     */
+    public T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        int row = indexOf(id);
+        if (row >= 0) {
+            return row(row);
+        }
+        return others.get(id);
+    }
+
+    public boolean contains(String id) {
+        return id != null && (indexOf(id) >= 0 || others.containsKey(id));
+    }
+
+    /**
+     * Adds an entity unless its ID is already stored.
+     * @param entity The entity; its ID must not be null.
+     * @return true if the entity was added.
+     */
+    public synchronized boolean add(T entity) {
+        String id = codec.id(entity);
+        if (contains(id)) {
+            return false;
+        }
+        if (entity instanceof Flight flight && flights != null && flights.add(flight)) {
+            return true;
+        }
+        if (entity instanceof Booking booking && bookings != null && bookings.add(booking)) {
+            return true;
+        }
+        return others.putIfAbsent(id, entity) == null;
+    }
+
+    /**
+     * Passes every entity to an action, building each one as it goes.
+     * @param action Receives the entities.
+     */
+    public void forEach(Consumer<? super T> action) {
+        int rows = flights != null ? flights.size() : bookings != null ? bookings.size() : 0;
+        for (int row = 0; row < rows; row++) {
+            action.accept(row(row));
+        }
+        others.values().forEach(action);
+    }
+
+    /**
+     * Passes the flights between two airports departing within a time window to an action,
+     * building only the matches.
+     * @param depAirport The departure airport code, or null for any.
+     * @param arrAirport The arrival airport code, or null for any.
+     * @param from The earliest departure time, inclusive, or null for no limit.
+     * @param to The latest departure time, inclusive, or null for no limit. Flights without a
+     *           departure time only match when both limits are null.
+     * @param action Receives the matching flights.
+     */
+    public void forEachFlight(String depAirport, String arrAirport, LocalDateTime from, LocalDateTime to,
+                              Consumer<? super Flight> action) {
+        if (flights == null) {
+            return;
+        }
+        flights.forEach(depAirport, arrAirport, from, to, row -> action.accept(flights.get(row)));
+        for (T entity : others.values()) {
+            Flight flight = (Flight) entity;
+            LocalDateTime depTime = flight.getDepTime();
+            if ((depAirport == null || depAirport.equals(flight.getDepAirport()))
+                    && (arrAirport == null || arrAirport.equals(flight.getArrAirport()))
+                    && ((from == null && to == null) || (depTime != null
+                        && (from == null || !depTime.isBefore(from)) && (to == null || !depTime.isAfter(to))))) {
+                action.accept(flight);
+            }
+        }
+    }
+
+    /**
+     * Passes the flight ID of every booking to an action, without building the bookings.
+     * @param action Receives the flight IDs, which may be null.
+     */
+    public void forEachBookedFlight(Consumer<String> action) {
+        if (bookings == null) {
+            return;
+        }
+        int rows = bookings.size();
+        for (int row = 0; row < rows; row++) {
+            action.accept(bookings.flightId(row));
+        }
+        others.values().forEach(entity -> action.accept(((Booking) entity).getFlightId()));
+    }
+
+    /**
+     * @return Every entity, built anew, e.g. to index them another way.
+     */
+    public List<T> toList() {
+        List<T> all = new ArrayList<>(size());
+        forEach(all::add);
+        return all;
+    }
+
+    // Only IDs the compact store can hold are looked up there, so "ABC..." and "abc..." stay distinct
+    private int indexOf(String id) {
+        if (!UUIDs.isCanonicalLowerCase(id)) {
+            return -1;
+        }
+        return flights != null ? flights.indexOf(id) : bookings != null ? bookings.indexOf(id) : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T row(int row) {
+        return (T) (flights != null ? flights.get(row) : bookings.get(row));
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.MatthewJacobSD.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder events for file I/O, CSV loads, reference cache loads and journal commits.
+ * <p>
+ * Each event times one file or batch, never a single row, and stack traces are off. While no
+ * recording is running, an event costs about as much as allocating it. Record them with e.g.
+ * {@code java -XX:StartFlightRecording=filename=booking.jfr ...} and open the file in JDK Mission
+ * Control, under the "Airline Booking" category.
+ */
+public final class Events {
+    private static final String CATEGORY = "Airline Booking";
+
+    private Events() {}
+
+    @Name("io.github.MatthewJacobSD.FileRead")
+    @Label("File Read")
+    @Description("A whole file read into memory")
+    @Category({CATEGORY, "File"})
+    @StackTrace(false)
+    public static final class FileRead extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Bytes")
+        @DataAmount(DataAmount.BYTES)
+        public long bytes;
+
+        @Label("Lines")
+        public long lines;
+    }
+
+    @Name("io.github.MatthewJacobSD.FileWrite")
+    @Label("File Write")
+    @Description("Content or CSV rows written to a file")
+    @Category({CATEGORY, "File"})
+    @StackTrace(false)
+    public static final class FileWrite extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Bytes")
+        @DataAmount(DataAmount.BYTES)
+        public long bytes;
+
+        @Label("Rows")
+        @Description("CSV rows written, or -1 for plain content")
+        public long rows;
+
+        @Label("Append")
+        public boolean append;
+    }
+
+    @Name("io.github.MatthewJacobSD.CsvBatch")
+    @Label("CSV Batch")
+    @Description("One pass of parsing and validating the rows of a CSV source")
+    @Category({CATEGORY, "CSV"})
+    @StackTrace(false)
+    public static final class CsvBatch extends Event {
+        @Label("Entity Type")
+        public Class<?> entityType;
+
+        @Label("Rows")
+        public long rows;
+
+        @Label("Accepted")
+        public long accepted;
+
+        @Label("Rejected")
+        public long rejected;
+
+        @Label("Parallel")
+        public boolean parallel;
+    }
+
+    @Name("io.github.MatthewJacobSD.ReferenceLoad")
+    @Label("Reference Cache Load")
+    @Description("The IDs of a reference file loaded into the reference cache")
+    @Category({CATEGORY, "References"})
+    @StackTrace(false)
+    public static final class ReferenceLoad extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Entity Type")
+        public Class<?> entityType;
+
+        @Label("IDs")
+        public long ids;
+
+        @Label("From Snapshot")
+        @Description("Whether the IDs were read from the binary snapshot rather than the CSV")
+        public boolean fromSnapshot;
+    }
+
+    @Name("io.github.MatthewJacobSD.JournalCommit")
+    @Label("Journal Commit")
+    @Description("A group commit of entities, e.g. bookings, to a write-ahead journal")
+    @Category({CATEGORY, "Journal"})
+    @StackTrace(false)
+    public static final class JournalCommit extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Entity Type")
+        public Class<?> entityType;
+
+        @Label("Entities")
+        public int entities;
+
+        @Label("Bytes")
+        @DataAmount(DataAmount.BYTES)
+        public long bytes;
+
+        @Label("Success")
+        public boolean success;
+    }
+}
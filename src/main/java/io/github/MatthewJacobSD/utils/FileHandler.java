@@ -1,13 +1,50 @@
 package io.github.MatthewJacobSD.utils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class FileHandler {
+    static final long MAPPED_READ_THRESHOLD = 1024 * 1024;
+
+    private static final int DEFAULT_WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int PREVIEW_ROWS = 5;
+
+    private static final Metrics.Histogram READ_FILE_LATENCY = Metrics.getInstance().histogram("file.readFile", false);
+    private static final Metrics.Counter BYTES_OPENED = Metrics.getInstance().counter("file.bytesOpened");
+    private static final Metrics.Histogram WRITE_LATENCY = Metrics.getInstance().histogram("file.write", false);
+    private static final Metrics.Counter BYTES_WRITTEN = Metrics.getInstance().counter("file.bytesWritten");
+    private static final Metrics.Throughput ROWS_WRITTEN = Metrics.getInstance().throughput("file.rowsWritten");
+
     private final ConsoleUI ui;
+    private final int writeBufferSize;
 
     public FileHandler(ConsoleUI ui) {
+        this(ui, DEFAULT_WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * @param ui The console UI for feedback and confirmations.
+     * @param writeBufferSize The output buffer size in characters used by {@link #writeCSV}.
+     */
+    public FileHandler(ConsoleUI ui, int writeBufferSize) {
+        if (writeBufferSize <= 0) {
+            throw new IllegalArgumentException("Write buffer size must be positive: " + writeBufferSize);
+        }
         this.ui = ui;
+        this.writeBufferSize = writeBufferSize;
     }
 
     /**
@@ -19,17 +56,32 @@ public class FileHandler {
         ui.showSectionHeader("Reading File");
         ui.showStatus("⏳ Attempting to read: " + path);
 
+        long start = READ_FILE_LATENCY.start();
+        Events.FileRead event = new Events.FileRead();
+        event.begin();
         try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
             StringBuilder content = new StringBuilder();
             String line;
             int lineCount = 0;
+            OutputSink.Progress progress = ui.startProgress(new File(path).length());
+            progress.track(content::length);
 
             while ((line = reader.readLine()) != null) {
                 content.append(line).append("\n");
                 lineCount++;
-                ui.showProgress(lineCount);
+                progress.update(lineCount);
             }
 
+            READ_FILE_LATENCY.stop(start);
+            long bytes = new File(path).length();
+            BYTES_OPENED.add(bytes);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.bytes = bytes;
+                event.lines = lineCount;
+                event.commit();
+            }
             ui.showSuccess("✅ Successfully read " + lineCount + " lines");
             return content.toString().trim();
         } catch (IOException e) {
@@ -38,6 +90,34 @@ public class FileHandler {
         return null;
     }
 
+    /**
+     * Opens a CSV file for streaming, record by record, with progress feedback.
+     * Files of {@link #MAPPED_READ_THRESHOLD} bytes or more are memory-mapped instead of
+     * decoded through a buffered reader.
+     * @param path The file path.
+     * @return A record reader positioned before the header, or null if the file cannot be opened.
+     */
+    public CSVRecordReader openCSV(String path) {
+        ui.showSectionHeader("Reading File");
+        ui.showStatus("⏳ Attempting to stream: " + path);
+
+        try {
+            Path file = Path.of(path);
+            long size = Files.size(file);
+            ui.showStatus("📄 File size: " + size + " bytes");
+            BYTES_OPENED.add(size);
+            OutputSink.Progress progress = ui.startProgress(size);
+            CSVRecordReader records = size >= MAPPED_READ_THRESHOLD
+                    ? MappedRecordReader.open(file, progress)
+                    : new CSVRecordReader(Files.newBufferedReader(file), progress);
+            progress.track(records::getPosition);
+            return records;
+        } catch (IOException | InvalidPathException e) {
+            ui.showError("Error reading file: " + e.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Writes content to a file interactively with confirmation and overwrite options.
      * @param path The file path.
@@ -49,16 +129,13 @@ public class FileHandler {
         ui.showSectionHeader("Writing File");
         File file = new File(path);
 
-        if (file.exists() && !append && file.length() > 0) {
-            ui.showWarning("⚠️ File already contains data!");
-            if (ui.confirmActionChoice("Overwrite existing content?")) {
-                ui.showStatus("⏹️ Operation cancelled by user");
-                return false;
-            }
+        if (!confirmOverwrite(file, append)) {
+            return false;
         }
 
-        ui.showStatus(file.exists() ? "📄 Existing file detected: " + file.length() + " bytes" : "📄 No existing file");
-
+        long sizeBefore = append ? file.length() : 0;
+        Events.FileWrite event = new Events.FileWrite();
+        event.begin();
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, append))) {
             // Add newline if appending to existing file
             if (append && file.exists() && file.length() > 0) {
@@ -67,7 +144,12 @@ public class FileHandler {
             writer.write(content);
             if (!content.endsWith("\n")) {
                 writer.newLine();
-            }    ui.showSuccess("✅ Successfully wrote " + content.length() + " characters");
+            }
+            writer.flush();
+            commitWriteEvent(event, path, file.length() - sizeBefore, -1, append);
+            ui.showSuccess("✅ Successfully wrote " + content.length() + " characters");
+            ReferenceRegistry.getInstance().invalidate(path);
+            IdIndex.invalidate(path);
             return true;
         } catch (IOException e) {
             ui.showError("Error writing to file: " + e.getMessage());
@@ -76,13 +158,39 @@ public class FileHandler {
     }
 
     /**
-     * Exports a list of objects as a CSV file interactively.
+     * Exports a collection of objects as a CSV file interactively.
+     * <p>
+     * Rows are serialized one at a time through a buffered channel writer, so memory use does
+     * not depend on the number of rows. When appending to a non-empty file the header is skipped.
+     *
      * @param path The CSV file path.
      * @param objects The objects to export.
      * @param append Whether to append to an existing file.
      * @return true if successful, false otherwise.
      */
-    public boolean writeCSV(String path, List<?> objects, boolean append) {
+    public boolean writeCSV(String path, Collection<?> objects, boolean append) {
+        if (!confirmCSVWrite(path, objects, append)) {
+            return false;
+        }
+        try {
+            long rows = writeRows(Path.of(path), objects, append);
+            reportWritten(path, rows);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            ui.showError("Error writing to file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Shows a preview of a CSV export and asks to go ahead, and before overwriting a non-empty file.
+     * Nothing is written.
+     * @param path The CSV file path.
+     * @param objects The objects to export.
+     * @param append Whether the objects will be appended to an existing file.
+     * @return true if the export should go ahead.
+     */
+    public boolean confirmCSVWrite(String path, Collection<?> objects, boolean append) {
         ui.showSectionHeader("CSV Export");
 
         if (objects == null || objects.isEmpty()) {
@@ -90,15 +198,183 @@ public class FileHandler {
             return false;
         }
 
-        String csvContent = CSVHandler.toCSV(objects);
-        ui.showStatus("Generated CSV preview (first 5 lines):");
-        ui.showPreview(csvContent.lines().limit(5).toArray(String[]::new));
-        ui.showStatus("📋 CSV content length: " + csvContent.length() + " characters");
+        ui.showStatus("Generated CSV preview (first " + PREVIEW_ROWS + " rows):");
+        ui.showPreview(CSVHandler.toCSV(objects.stream().limit(PREVIEW_ROWS).toList()).split("\n"));
+        ui.showStatus("📋 Rows to export: " + objects.size());
 
         if (ui.confirmActionChoice("Proceed with saving?")) {
             return false;
         }
 
-        return writeFile(path, csvContent, append);
+        ui.showSectionHeader("Writing File");
+        return confirmOverwrite(new File(path), append);
+    }
+
+    /**
+     * Reports rows written after {@link #confirmCSVWrite}.
+     * @param path The CSV file path.
+     * @param rows The number of rows written.
+     */
+    public void reportWritten(String path, long rows) {
+        ui.showSuccess("✅ Successfully wrote " + rows + " rows (" + new File(path).length() + " bytes in file)");
+    }
+
+    /**
+     * Appends objects to a CSV file without previews or prompts, for headless use.
+     * The header is written only if the file is new or empty.
+     * @param path The CSV file path.
+     * @param objects The objects to append.
+     * @return The number of rows written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long appendCSV(String path, Collection<?> objects) throws IOException {
+        if (objects == null || objects.isEmpty()) {
+            return 0;
+        }
+        return writeRows(Path.of(path), objects, true);
+    }
+
+    /**
+     * Replaces the contents of a CSV file without previews or prompts, for headless use.
+     * @param path The CSV file path.
+     * @param objects The objects to write; at least one, so the header can be derived.
+     * @return The number of rows written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long replaceCSV(String path, Collection<?> objects) throws IOException {
+        if (objects == null || objects.isEmpty()) {
+            throw new IllegalArgumentException("No rows to write to " + path);
+        }
+        return writeRows(Path.of(path), objects, false);
+    }
+
+    // Streams rows through a buffered channel writer and keeps the ID caches in step with the file
+    private long writeRows(Path file, Collection<?> objects, boolean append) throws IOException {
+        String path = file.toString();
+        Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!append) {
+            options.add(StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        CSVCodec<?> codec = CSVCodec.forClass(objects.iterator().next().getClass());
+        boolean rewritten = append && file.toFile().length() > 0 && addMissingColumns(file, codec);
+        long sizeBefore = file.toFile().length();
+        long modifiedBefore = file.toFile().lastModified();
+        boolean hasData;
+        long rows;
+        long start = System.nanoTime();
+        Events.FileWrite event = new Events.FileWrite();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(file, options);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), writeBufferSize)) {
+            channel.position(channel.size());
+            hasData = channel.size() > 0;
+            if (hasData && !endsWithNewline(channel)) {
+                writer.write('\n');
+            }
+            // Rows follow the column order of the existing header
+            rows = hasData
+                    ? CSVHandler.appendCSV(objects, writer, readHeader(channel))
+                    : CSVHandler.writeCSV(objects, writer, true);
+            writer.flush();
+        } catch (IOException | UncheckedIOException e) {
+            IdIndex.invalidate(path);
+            throw e;
+        }
+
+        long nanos = System.nanoTime() - start;
+        long bytes = file.toFile().length() - (append ? sizeBefore : 0);
+        WRITE_LATENCY.record(nanos);
+        ROWS_WRITTEN.record(rows, nanos);
+        BYTES_WRITTEN.add(bytes);
+        commitWriteEvent(event, path, bytes, rows, append);
+
+        ReferenceRegistry.getInstance().invalidate(path);
+        if (hasData && !rewritten) {
+            IdIndex.appended(path, sizeBefore, modifiedBefore, () -> objects.stream().map(codec::id).iterator());
+        } else {
+            IdIndex.invalidate(path);
+        }
+        return rows;
+    }
+
+    private static void commitWriteEvent(Events.FileWrite event, String path, long bytes, long rows, boolean append) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.bytes = bytes;
+            event.rows = rows;
+            event.append = append;
+            event.commit();
+        }
+    }
+
+    // Asks before overwriting a non-empty file; returns false if the user cancels
+    private boolean confirmOverwrite(File file, boolean append) {
+        if (file.exists() && !append && file.length() > 0) {
+            ui.showWarning("⚠️ File already contains data!");
+            if (ui.confirmActionChoice("Overwrite existing content?")) {
+                ui.showStatus("⏹️ Operation cancelled by user");
+                return false;
+            }
+        }
+
+        ui.showStatus(file.exists() ? "📄 Existing file detected: " + file.length() + " bytes" : "📄 No existing file");
+        return true;
+    }
+
+    // Rewrites a file whose header lacks optional fields added to the model since, leaving their values empty
+    static boolean addMissingColumns(Path file, CSVCodec<?> codec) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (CSVRecordReader records = new CSVRecordReader(Files.newBufferedReader(file))) {
+            String header = records.header();
+            if (header == null) {
+                return false;
+            }
+            List<String> headers = Arrays.asList(CSVHandler.parseCSVLine(header));
+            List<String> missing = codec.fieldNames().stream().filter(name -> !headers.contains(name)).toList();
+            // A file without a required field is not one of ours; appending reports the mismatch
+            if (missing.isEmpty() || !headers.containsAll(codec.requiredFieldNames())) {
+                return false;
+            }
+            String padding = ",".repeat(missing.size());
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write(header + "," + String.join(",", missing) + "\n");
+                while (records.hasNext()) {
+                    out.write(records.next());
+                    out.write(padding);
+                    out.write('\n');
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    // Reads the first line of a file without moving the channel's position
+    static String readHeader(FileChannel channel) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (long position = 0; channel.read(buffer.clear(), position) > 0; position += buffer.position()) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    return stripCarriageReturn(header.toString(StandardCharsets.UTF_8));
+                }
+                header.write(b);
+            }
+            buffer.position(buffer.limit());
+        }
+        return stripCarriageReturn(header.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String stripCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    private static boolean endsWithNewline(FileChannel channel) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, channel.size() - 1);
+        return last.get(0) == '\n';
     }
-}
\ No newline at end of file
+}
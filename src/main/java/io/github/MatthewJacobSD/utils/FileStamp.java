@@ -0,0 +1,43 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The size and modification time of a CSV file, which the ID index, the snapshot and the
+ * reference cache compare to tell whether the file changed since they were built from it.
+ *
+ * @param size The size in bytes, or -1 if the file does not exist.
+ * @param modified The modification time in millis.
+ */
+record FileStamp(long size, long modified) {
+    static final FileStamp MISSING = new FileStamp(-1, 0);
+
+    /**
+     * @param file The file.
+     * @return The file's current stamp.
+     * @throws IOException If the file cannot be read.
+     */
+    static FileStamp of(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * @param file The file.
+     * @return The file's current stamp, or {@link #MISSING} if it cannot be read.
+     */
+    static FileStamp ofOrMissing(Path file) {
+        try {
+            return of(file);
+        } catch (IOException e) {
+            return MISSING;
+        }
+    }
+
+    boolean exists() {
+        return size >= 0;
+    }
+}
@@ -0,0 +1,328 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Flight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory flight search index keyed by departure and arrival airport.
+ * <p>
+ * Flights of one airport pair are split into buckets by departure date, held in an array indexed
+ * by day, and each bucket keeps its flights sorted by departure time. A search looks up the pair,
+ * walks the days of the window and binary-searches within each day, so its cost depends on the
+ * number of matches rather than on the total number of flights. Airport codes are packed into an
+ * int key, so a lookup does not build strings.
+ * <p>
+ * The index is thread-safe: searches share a read lock, additions take the write lock. Flights are
+ * indexed by their departure time when added; a flight whose airports or times change must be
+ * re-indexed by rebuilding the index.
+ */
+public class FlightIndex {
+    private static final int INITIAL_DAYS = 32;
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private final Map<Integer, Pair> pairs = new HashMap<>();
+    private final UuidHashSet ids = new UuidHashSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Builds an index from the valid rows of a flights CSV file, using its snapshot when available.
+     * @param csvPath The flights file.
+     * @return The index; empty if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public static FlightIndex load(String csvPath) throws IOException {
+        FlightIndex index = new FlightIndex();
+        Path file = Path.of(csvPath);
+        if (!Files.exists(file)) {
+            return index;
+        }
+        Snapshot<Flight> snapshot = Snapshot.open(csvPath, Flight.class);
+        if (snapshot != null) {
+            index.addAll(snapshot.materialize());
+            return index;
+        }
+        try (Stream<Flight> flights = CSVHandler.stream(new CSVRecordReader(Files.newBufferedReader(file)), Flight.class, null)) {
+            flights.forEach(index::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return index;
+    }
+
+    /**
+     * Adds a flight. Flights without a UUID, airports or departure time, and IDs already indexed, are skipped.
+     * @param flight The flight.
+     * @return true if the flight was added.
+     */
+    public boolean add(Flight flight) {
+        int key = pairKey(flight.getDepAirport(), flight.getArrAirport());
+        if (key < 0 || flight.getDepTime() == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            return insert(key, flight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds flights under a single lock acquisition.
+     * @param flights The flights.
+     * @return The number of flights added.
+     */
+    public int addAll(Iterable<Flight> flights) {
+        int added = 0;
+        lock.writeLock().lock();
+        try {
+            for (Flight flight : flights) {
+                int key = pairKey(flight.getDepAirport(), flight.getArrAirport());
+                if (key >= 0 && flight.getDepTime() != null && insert(key, flight)) {
+                    added++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return added;
+    }
+
+    /**
+     * @return The number of indexed flights.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return A copy of every indexed flight, grouped by airport pair and sorted by departure within each day.
+     */
+    public List<Flight> flights() {
+        lock.readLock().lock();
+        try {
+            List<Flight> all = new ArrayList<>(size);
+            for (Pair pair : pairs.values()) {
+                for (Bucket bucket : pair.days) {
+                    if (bucket != null) {
+                        all.addAll(Arrays.asList(bucket.flights).subList(0, bucket.size));
+                    }
+                }
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds flights between two airports departing within a time window.
+     * @param depAirport The departure airport code.
+     * @param arrAirport The arrival airport code.
+     * @param from The earliest departure time, inclusive.
+     * @param to The latest departure time, inclusive.
+     * @return The matching flights in departure order.
+     */
+    public List<Flight> search(String depAirport, String arrAirport, LocalDateTime from, LocalDateTime to) {
+        List<Flight> matches = new ArrayList<>();
+        forEach(depAirport, arrAirport, from, to, matches::add);
+        return matches;
+    }
+
+    /**
+     * Finds flights between two airports departing on a date.
+     * @param depAirport The departure airport code.
+     * @param arrAirport The arrival airport code.
+     * @param date The departure date.
+     * @return The matching flights in departure order.
+     */
+    public List<Flight> search(String depAirport, String arrAirport, LocalDate date) {
+        return search(depAirport, arrAirport, date.atStartOfDay(), date.atTime(23, 59, 59, 999_999_999));
+    }
+
+    /**
+     * Passes the flights between two airports departing within a time window to an action, in
+     * departure order, without collecting them. The action runs under the read lock and must not
+     * modify the index.
+     * @param depAirport The departure airport code.
+     * @param arrAirport The arrival airport code.
+     * @param from The earliest departure time, inclusive.
+     * @param to The latest departure time, inclusive.
+     * @param action Receives every matching flight.
+     */
+    public void forEach(String depAirport, String arrAirport, LocalDateTime from, LocalDateTime to,
+                        Consumer<? super Flight> action) {
+        int key = pairKey(depAirport, arrAirport);
+        if (key < 0 || from.isAfter(to)) {
+            return;
+        }
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        lock.readLock().lock();
+        try {
+            Pair pair = pairs.get(mapKey(key));
+            if (pair != null) {
+                pair.forEach(from.toLocalDate().toEpochDay(), to.toLocalDate().toEpochDay(), fromSecond, toSecond, action);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean insert(int key, Flight flight) {
+        String id = flight.getId();
+        if (id == null || !ids.add(id)) {
+            return false;
+        }
+        LocalDateTime depTime = flight.getDepTime();
+        pairs.computeIfAbsent(mapKey(key), k -> new Pair())
+                .bucket(depTime.toLocalDate().toEpochDay())
+                .insert(depTime.toEpochSecond(ZoneOffset.UTC), flight);
+        size++;
+        return true;
+    }
+
+    // Packs two 3-letter uppercase codes into 30 bits; -1 if either code is not of that form
+    static int pairKey(String depAirport, String arrAirport) {
+        int dep = airportKey(depAirport);
+        int arr = airportKey(arrAirport);
+        return dep < 0 || arr < 0 ? -1 : dep << 15 | arr;
+    }
+
+    // Scrambles a pair key so that similar codes spread over the hash table; odd multipliers are one-to-one
+    private static Integer mapKey(int pairKey) {
+        return pairKey * 0x9E3779B1;
+    }
+
+    private static int airportKey(String code) {
+        if (code == null || code.length() != 3) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = code.charAt(i) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            key = key << 5 | letter;
+        }
+        return key;
+    }
+
+    // The buckets of one airport pair in an array indexed by days since the earliest departure date
+    private static final class Pair {
+        long firstDay;
+        Bucket[] days = new Bucket[0];
+
+        Bucket bucket(long day) {
+            if (days.length == 0) {
+                firstDay = day;
+                days = new Bucket[INITIAL_DAYS];
+            } else if (day < firstDay) {
+                int shift = Math.toIntExact(firstDay - day);
+                Bucket[] grown = new Bucket[Math.max(days.length * 2, days.length + shift)];
+                System.arraycopy(days, 0, grown, shift, days.length);
+                days = grown;
+                firstDay = day;
+            } else if (day - firstDay >= days.length) {
+                days = Arrays.copyOf(days, Math.max(days.length * 2, Math.toIntExact(day - firstDay + 1)));
+            }
+            int offset = (int) (day - firstDay);
+            Bucket bucket = days[offset];
+            if (bucket == null) {
+                bucket = new Bucket();
+                days[offset] = bucket;
+            }
+            return bucket;
+        }
+
+        void forEach(long fromDay, long toDay, long from, long to, Consumer<? super Flight> action) {
+            long first = Math.max(fromDay, firstDay);
+            long last = Math.min(toDay, firstDay + days.length - 1);
+            for (long day = first; day <= last; day++) {
+                Bucket bucket = days[(int) (day - firstDay)];
+                if (bucket != null) {
+                    bucket.forEach(from, to, action);
+                }
+            }
+        }
+    }
+
+    // Flights departing on one day, sorted by departure second; ties keep insertion order
+    private static final class Bucket {
+        long[] times = new long[INITIAL_BUCKET_CAPACITY];
+        Flight[] flights = new Flight[INITIAL_BUCKET_CAPACITY];
+        int size;
+
+        void insert(long time, Flight flight) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                flights = Arrays.copyOf(flights, size * 2);
+            }
+            // Flights usually arrive in time order, so check the end before searching
+            int at = size == 0 || times[size - 1] <= time ? size : upperBound(time);
+            System.arraycopy(times, at, times, at + 1, size - at);
+            System.arraycopy(flights, at, flights, at + 1, size - at);
+            times[at] = time;
+            flights[at] = flight;
+            size++;
+        }
+
+        void forEach(long from, long to, Consumer<? super Flight> action) {
+            for (int i = lowerBound(from); i < size && times[i] <= to; i++) {
+                action.accept(flights[i]);
+            }
+        }
+
+        // First index whose time is >= the given time
+        private int lowerBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First index whose time is > the given time
+        private int upperBound(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Flight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Compact, column-oriented flight storage: one primitive array per field instead of one object
+ * per flight.
+ * <p>
+ * A flight takes 40 bytes instead of several hundred:
+ * <ul>
+ *   <li>IDs are kept as two longs.</li>
+ *   <li>Airport codes are packed into 15-bit shorts, five bits per letter.</li>
+ *   <li>Times are minutes since the epoch, in UTC.</li>
+ *   <li>Flight numbers and route IDs are codes in the shared {@link StringDictionary} pools.</li>
+ * </ul>
+ * Scans walk the arrays in row order and compare primitives, so they stay in cache and build
+ * no objects. An open-addressing table of rows, keyed by flight ID, answers lookups by ID.
+ * Rows are read through the row accessors, or a reusable {@link Cursor}; {@link #get(int)}
+ * builds a {@link Flight} only when one is needed.
+ * <p>
+ * Rows are only appended. Additions are serialized, and readers may scan while flights are added:
+ * a scan covers the rows stored when it started.
+ */
+public final class FlightStore {
+    public static final int NULL_AIRPORT = -1;
+    public static final int NULL_MINUTE = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    // ID index slots hold row + 1, so 0 marks an empty slot; the table is kept at most half full
+    private static final int MIN_SLOTS = 1 << 10;
+    // Encodings of values that cannot be stored
+    private static final int INVALID_AIRPORT = -2;
+    private static final int INVALID_MINUTE = NULL_MINUTE + 1;
+    private static final int POOL_FULL = StringDictionary.NO_CODE - 1;
+    // Decoded airport codes by packed key, filled on first use
+    private static final String[] AIRPORT_CODES = new String[1 << 15];
+    private static final StringDictionary FLIGHT_NUMBERS = StringDictionary.forName("flightNo");
+    private static final StringDictionary ROUTE_IDS = CSVCodec.forClass(Flight.class).dictionary("routeId");
+
+    private long[] idHigh;
+    private long[] idLow;
+    private int[] flightNos;
+    private short[] depAirports;
+    private short[] arrAirports;
+    private int[] depMinutes;
+    private int[] arrMinutes;
+    private int[] routes;
+    private int[] capacities;
+    private volatile int[] slots = new int[MIN_SLOTS];
+    // Written after the rows it covers, so a reader that reads it first sees them
+    private volatile int size;
+
+    public FlightStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of flights to allocate room for.
+     */
+    public FlightStore(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Builds a store from the rows of a flights CSV file, using its snapshot when available. Rows are
+     * read with format checks only, so flights that have departed are kept.
+     * @param csvPath The flights file.
+     * @return The store; empty if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public static FlightStore load(String csvPath) throws IOException {
+        FlightStore store = new FlightStore();
+        Path file = Path.of(csvPath);
+        if (!Files.exists(file)) {
+            return store;
+        }
+        Snapshot<Flight> snapshot = Snapshot.open(csvPath, Flight.class);
+        if (snapshot != null) {
+            store.addAll(snapshot.materialize());
+            store.trimToSize();
+            return store;
+        }
+        try (Stream<Flight> flights = CSVHandler.streamStored(new CSVRecordReader(Files.newBufferedReader(file)), Flight.class)) {
+            flights.forEach(store::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * Appends a flight. Flights that cannot be encoded are skipped: IDs that are not lower-case
+     * canonical UUIDs, airport codes that are not three capital letters, times with seconds, and
+     * flight numbers or route IDs once their pool is full.
+     * @param flight The flight.
+     * @return true if the flight was added.
+     */
+    public synchronized boolean add(Flight flight) {
+        String id = flight.getId();
+        if (!UUIDs.isCanonicalLowerCase(id)) {
+            return false;
+        }
+        int dep = encodeAirport(flight.getDepAirport());
+        int arr = encodeAirport(flight.getArrAirport());
+        int depMinute = minute(flight.getDepTime());
+        int arrMinute = minute(flight.getArrTime());
+        int flightNo = code(FLIGHT_NUMBERS, flight.getFlightNo());
+        int route = code(ROUTE_IDS, flight.getRouteId());
+        if (dep == INVALID_AIRPORT || arr == INVALID_AIRPORT || depMinute == INVALID_MINUTE || arrMinute == INVALID_MINUTE
+                || flightNo == POOL_FULL || route == POOL_FULL) {
+            return false;
+        }
+
+        int row = size;
+        if (row == idHigh.length) {
+            grow(Math.max(DEFAULT_CAPACITY, row + (row >> 1)));
+        }
+        long high = UUIDs.mostSignificantBits(id);
+        long low = UUIDs.leastSignificantBits(id);
+        idHigh[row] = high;
+        idLow[row] = low;
+        flightNos[row] = flightNo;
+        depAirports[row] = (short) dep;
+        arrAirports[row] = (short) arr;
+        depMinutes[row] = depMinute;
+        arrMinutes[row] = arrMinute;
+        routes[row] = route;
+        capacities[row] = flight.getCapacity();
+        if ((row + 1) * 2L > slots.length) {
+            rehash(slots.length * 2, row);
+        }
+        insert(slots, high, low, row);
+        size = row + 1;
+        return true;
+    }
+
+    /**
+     * Appends flights, skipping those {@link #add(Flight)} cannot encode.
+     * @param flights The flights.
+     * @return The number of flights added.
+     */
+    public synchronized int addAll(Iterable<Flight> flights) {
+        int added = 0;
+        for (Flight flight : flights) {
+            if (add(flight)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Shrinks the arrays to the number of stored flights, e.g. once loading is done.
+     */
+    public synchronized void trimToSize() {
+        if (size < idHigh.length) {
+            grow(size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The bytes held by the arrays and the ID index, excluding the shared pools.
+     */
+    public long footprint() {
+        return 8L * (idHigh.length + idLow.length) + 4L * slots.length
+                + 4L * (flightNos.length + depMinutes.length + arrMinutes.length + routes.length + capacities.length)
+                + 2L * (depAirports.length + arrAirports.length);
+    }
+
+    // Row accessors; rows are numbered in insertion order from 0
+
+    public String id(int row) {
+        return new UUID(idHigh[row], idLow[row]).toString();
+    }
+
+    public long idMostSignificantBits(int row) {
+        return idHigh[row];
+    }
+
+    public long idLeastSignificantBits(int row) {
+        return idLow[row];
+    }
+
+    public String flightNo(int row) {
+        return FLIGHT_NUMBERS.value(flightNos[row]);
+    }
+
+    public String depAirport(int row) {
+        return airportCode(depAirports[row]);
+    }
+
+    public String arrAirport(int row) {
+        return airportCode(arrAirports[row]);
+    }
+
+    /**
+     * @param row The row.
+     * @return The packed departure airport code, see {@link #airportKey(String)}, or {@link #NULL_AIRPORT} if unset.
+     */
+    public int depAirportKey(int row) {
+        return depAirports[row];
+    }
+
+    public int arrAirportKey(int row) {
+        return arrAirports[row];
+    }
+
+    public LocalDateTime depTime(int row) {
+        return dateTime(depMinutes[row]);
+    }
+
+    public LocalDateTime arrTime(int row) {
+        return dateTime(arrMinutes[row]);
+    }
+
+    /**
+     * @param row The row.
+     * @return The departure time in minutes since the epoch, or {@link #NULL_MINUTE} if unset.
+     */
+    public int depMinute(int row) {
+        return depMinutes[row];
+    }
+
+    public int arrMinute(int row) {
+        return arrMinutes[row];
+    }
+
+    public String routeId(int row) {
+        return ROUTE_IDS.value(routes[row]);
+    }
+
+    /**
+     * @param row The row.
+     * @return The code of the route ID in its pool, or {@link StringDictionary#NO_CODE} if unset.
+     */
+    public int routeCode(int row) {
+        return routes[row];
+    }
+
+    public int capacity(int row) {
+        return capacities[row];
+    }
+
+    /**
+     * Builds the flight stored in a row.
+     * @param row The row.
+     * @return A new flight object.
+     */
+    public Flight get(int row) {
+        Objects.checkIndex(row, size);
+        return new Flight(id(row), flightNo(row), depAirport(row), arrAirport(row), depTime(row), arrTime(row),
+                routeId(row), capacity(row));
+    }
+
+    /**
+     * Finds the row of a flight ID in the ID index.
+     * @param id The flight ID.
+     * @return The first row with that ID, or -1 if there is none.
+     */
+    public int indexOf(String id) {
+        if (!UUIDs.isCanonical(id)) {
+            return -1;
+        }
+        long high = UUIDs.mostSignificantBits(id);
+        long low = UUIDs.leastSignificantBits(id);
+        // Rows from end on are ignored, since their columns may not be visible yet
+        int end = size;
+        long[] highs = idHigh;
+        long[] lows = idLow;
+        int[] table = slots;
+        int mask = table.length - 1;
+        int first = -1;
+        for (int slot = UuidHashSet.hash(high, low) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int row = table[slot] - 1;
+            if (row < end && highs[row] == high && lows[row] == low && (first < 0 || row < first)) {
+                first = row;
+            }
+        }
+        return first;
+    }
+
+    public boolean contains(String id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Passes the rows of the flights between two airports departing within a time window to an
+     * action, in row order.
+     * @param depAirport The departure airport code, or null for any.
+     * @param arrAirport The arrival airport code, or null for any.
+     * @param from The earliest departure time, inclusive, or null for no limit.
+     * @param to The latest departure time, inclusive, or null for no limit. Flights without a
+     *           departure time only match when both limits are null.
+     * @param action Receives every matching row.
+     */
+    public void forEach(String depAirport, String arrAirport, LocalDateTime from, LocalDateTime to, IntConsumer action) {
+        int dep = airportKey(depAirport);
+        int arr = airportKey(arrAirport);
+        if ((depAirport != null && dep < 0) || (arrAirport != null && arr < 0)
+                || (from != null && to != null && from.isAfter(to))) {
+            return;
+        }
+        boolean anyTime = from == null && to == null;
+        // Whole minutes within the window
+        long first = from != null ? Math.ceilDiv(from.toEpochSecond(ZoneOffset.UTC), 60) : NULL_MINUTE + 1L;
+        long last = to != null ? Math.floorDiv(to.toEpochSecond(ZoneOffset.UTC), 60) : Integer.MAX_VALUE;
+        int end = size;
+        short[] deps = depAirports;
+        short[] arrs = arrAirports;
+        int[] minutes = depMinutes;
+        for (int row = 0; row < end; row++) {
+            if ((depAirport == null || deps[row] == dep) && (arrAirport == null || arrs[row] == arr)
+                    && (anyTime || (minutes[row] >= first && minutes[row] <= last))) {
+                action.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Passes the rows of the flights on a route to an action, in row order.
+     * @param routeId The route ID.
+     * @param action Receives every matching row.
+     */
+    public void forEachOnRoute(String routeId, IntConsumer action) {
+        int route = ROUTE_IDS.find(routeId);
+        if (route == StringDictionary.NO_CODE) {
+            return;
+        }
+        int end = size;
+        int[] codes = routes;
+        for (int row = 0; row < end; row++) {
+            if (codes[row] == route) {
+                action.accept(row);
+            }
+        }
+    }
+
+    /**
+     * @return A cursor before the first of the rows stored now.
+     */
+    public Cursor cursor() {
+        return new Cursor(size);
+    }
+
+    /**
+     * Packs a three-letter airport code into 15 bits, five bits per letter.
+     * @param code The airport code.
+     * @return The packed code, or {@link #NULL_AIRPORT} if the code is not three capital letters.
+     */
+    public static int airportKey(String code) {
+        int key = encodeAirport(code);
+        return key >= 0 ? key : NULL_AIRPORT;
+    }
+
+    private static int encodeAirport(String code) {
+        if (code == null) {
+            return NULL_AIRPORT;
+        }
+        if (code.length() != 3) {
+            return INVALID_AIRPORT;
+        }
+        int key = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = code.charAt(i) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return INVALID_AIRPORT;
+            }
+            key = key << 5 | letter;
+        }
+        return key;
+    }
+
+    private static String airportCode(int key) {
+        if (key == NULL_AIRPORT) {
+            return null;
+        }
+        // Strings are immutable, so a racing fill is harmless
+        String code = AIRPORT_CODES[key];
+        if (code == null) {
+            code = new String(new char[] {
+                    (char) ('A' + (key >> 10 & 31)), (char) ('A' + (key >> 5 & 31)), (char) ('A' + (key & 31))});
+            AIRPORT_CODES[key] = code;
+        }
+        return code;
+    }
+
+    private static int minute(LocalDateTime time) {
+        if (time == null) {
+            return NULL_MINUTE;
+        }
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        long minute = Math.floorDiv(seconds, 60);
+        if (seconds % 60 != 0 || time.getNano() != 0 || minute <= INVALID_MINUTE || minute > Integer.MAX_VALUE) {
+            return INVALID_MINUTE;
+        }
+        return (int) minute;
+    }
+
+    private static LocalDateTime dateTime(int minute) {
+        return minute == NULL_MINUTE ? null : LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private static int code(StringDictionary dictionary, String value) {
+        if (value == null) {
+            return StringDictionary.NO_CODE;
+        }
+        int code = dictionary.code(value);
+        return code == StringDictionary.NO_CODE ? POOL_FULL : code;
+    }
+
+    private static void insert(int[] table, long high, long low, int row) {
+        int mask = table.length - 1;
+        int slot = UuidHashSet.hash(high, low) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = row + 1;
+    }
+
+    // Builds the larger table aside and publishes it whole, so readers never probe a partial one
+    private void rehash(int length, int rows) {
+        int[] table = new int[length];
+        for (int row = 0; row < rows; row++) {
+            insert(table, idHigh[row], idLow[row], row);
+        }
+        slots = table;
+    }
+
+    private void allocate(int capacity) {
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        flightNos = new int[capacity];
+        depAirports = new short[capacity];
+        arrAirports = new short[capacity];
+        depMinutes = new int[capacity];
+        arrMinutes = new int[capacity];
+        routes = new int[capacity];
+        capacities = new int[capacity];
+    }
+
+    private void grow(int capacity) {
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        flightNos = Arrays.copyOf(flightNos, capacity);
+        depAirports = Arrays.copyOf(depAirports, capacity);
+        arrAirports = Arrays.copyOf(arrAirports, capacity);
+        depMinutes = Arrays.copyOf(depMinutes, capacity);
+        arrMinutes = Arrays.copyOf(arrMinutes, capacity);
+        routes = Arrays.copyOf(routes, capacity);
+        capacities = Arrays.copyOf(capacities, capacity);
+    }
+
+    /**
+     * A reusable view of one row at a time, for sequential scans without building flights.
+     * <pre>
+     * FlightStore.Cursor cursor = store.cursor();
+     * while (cursor.next()) {
+     *     if (cursor.capacity() > 200) ...
+     * }
+     * </pre>
+     */
+    public final class Cursor {
+        private final int end;
+        private int row = -1;
+
+        private Cursor(int end) {
+            this.end = end;
+        }
+
+        /**
+         * @return true if the cursor moved to the next row, false after the last one.
+         */
+        public boolean next() {
+            if (row < end) {
+                row++;
+            }
+            return row < end;
+        }
+
+        /**
+         * @param row The row to move to.
+         * @return This cursor.
+         */
+        public Cursor seek(int row) {
+            this.row = Objects.checkIndex(row, end);
+            return this;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public String id() { return FlightStore.this.id(row); }
+        public String flightNo() { return FlightStore.this.flightNo(row); }
+        public String depAirport() { return FlightStore.this.depAirport(row); }
+        public String arrAirport() { return FlightStore.this.arrAirport(row); }
+        public int depAirportKey() { return depAirports[row]; }
+        public int arrAirportKey() { return arrAirports[row]; }
+        public LocalDateTime depTime() { return FlightStore.this.depTime(row); }
+        public LocalDateTime arrTime() { return FlightStore.this.arrTime(row); }
+        public int depMinute() { return depMinutes[row]; }
+        public int arrMinute() { return arrMinutes[row]; }
+        public String routeId() { return FlightStore.this.routeId(row); }
+        public int routeCode() { return routes[row]; }
+        public int capacity() { return capacities[row]; }
+        public Flight get() { return FlightStore.this.get(row); }
+    }
+}
@@ -0,0 +1,368 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent index of the IDs in a CSV file, kept in sidecar files next to it.
+ * <p>
+ * {@code <file>.idx} holds a header with the CSV size and modification time it describes,
+ * followed by the IDs as sorted 128-bit pairs, which are binary-searched through a read-only
+ * mapping. {@code <file>.idx.log} holds IDs appended since the sorted part was last rebuilt;
+ * it is loaded into memory and folded into the sorted part once it grows past
+ * {@link #MAX_LOG_ENTRIES}. If the CSV no longer matches the stamp in the header, the index
+ * is rebuilt from the file's {@code id} column, so duplicate checks on append cost a lookup
+ * per new ID instead of a re-parse of the whole file. The sidecar files of a CSV file are only
+ * read and written under a lock per file, so concurrent opens rebuild a stale index once.
+ */
+public final class IdIndex {
+    private static final int MAGIC = 0x49445831; // "IDX1"
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_SIZE = 16;
+    private static final int MAX_LOG_ENTRIES = 1 << 16;
+    // A ReentrantLock rather than a monitor, so virtual threads waiting on a rebuild do not pin their carrier
+    private static final Map<Path, Lock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path csv;
+    private final Path indexFile;
+    private final Path logFile;
+    private final long count;
+    private final LongBuffer sorted;
+    private final UuidHashSet logged;
+
+    private IdIndex(Path csv, long count, LongBuffer sorted, UuidHashSet logged) {
+        this.csv = csv;
+        this.indexFile = indexPath(csv);
+        this.logFile = logPath(csv);
+        this.count = count;
+        this.sorted = sorted;
+        this.logged = logged;
+    }
+
+    /**
+     * Opens the index for a CSV file, rebuilding it first if it is missing or stale.
+     * @param csvPath The CSV file path.
+     * @return The index, or null if the CSV file does not exist.
+     * @throws IOException If the index cannot be read or rebuilt.
+     */
+    public static IdIndex open(String csvPath) throws IOException {
+        Path csv = Path.of(csvPath);
+        Lock lock = lockFor(csv);
+        lock.lock();
+        try {
+            if (!Files.exists(csv)) {
+                return null;
+            }
+            FileStamp stamp = FileStamp.of(csv);
+            if (!stamp.equals(readStamp(indexPath(csv)))) {
+                rebuild(csv, stamp);
+            }
+
+            UuidHashSet logged = readLog(logPath(csv));
+            if (logged.size() > MAX_LOG_ENTRIES) {
+                rebuild(csv, stamp);
+                logged = new UuidHashSet();
+            }
+
+            try (FileChannel channel = FileChannel.open(indexPath(csv), StandardOpenOption.READ)) {
+                long count = (channel.size() - HEADER_SIZE) / ENTRY_SIZE;
+                // A mapped buffer is limited to 2 GB, i.e. about 134M IDs
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, count * ENTRY_SIZE);
+                return new IdIndex(csv, count, mapped.asLongBuffer(), logged);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of IDs in the index.
+     */
+    public long size() {
+        return count + logged.size();
+    }
+
+    public boolean contains(String id) {
+        UUID uuid = UUIDs.parse(id);
+        if (uuid == null) {
+            return false;
+        }
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        return logged.contains(msb, lsb) || binarySearch(msb, lsb);
+    }
+
+    public boolean containsAny(Collection<String> ids) {
+        return ids.stream().anyMatch(this::contains);
+    }
+
+    /**
+     * Brings the sidecar in line with rows just appended to the CSV file.
+     * <p>
+     * If the index described the file as it was before the append, the new IDs go to the log
+     * and the header is re-stamped; otherwise the sidecar is dropped and rebuilt on next open.
+     *
+     * @param csvPath The CSV file path.
+     * @param sizeBefore The CSV size before the append.
+     * @param modifiedBefore The CSV modification time in millis before the append.
+     * @param ids The IDs of the appended rows.
+     */
+    public static void appended(String csvPath, long sizeBefore, long modifiedBefore, Iterable<String> ids) {
+        Path csv = Path.of(csvPath);
+        Path index = indexPath(csv);
+        Lock lock = lockFor(csv);
+        lock.lock();
+        try {
+            if (!new FileStamp(sizeBefore, modifiedBefore).equals(readStamp(index))) {
+                invalidate(csvPath);
+                return;
+            }
+
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+            try (FileChannel log = FileChannel.open(logPath(csv), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                for (String id : ids) {
+                    UUID uuid = UUIDs.parse(id);
+                    if (uuid == null) {
+                        continue;
+                    }
+                    entry.clear();
+                    entry.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).flip();
+                    while (entry.hasRemaining()) {
+                        log.write(entry);
+                    }
+                }
+            }
+            writeStamp(index, FileStamp.of(csv));
+        } catch (IOException e) {
+            invalidate(csvPath);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the sidecar files so the index is rebuilt on next open.
+     * @param csvPath The CSV file path.
+     */
+    public static void invalidate(String csvPath) {
+        Path csv = Path.of(csvPath);
+        Lock lock = lockFor(csv);
+        lock.lock();
+        try {
+            Files.deleteIfExists(indexPath(csv));
+            Files.deleteIfExists(logPath(csv));
+        } catch (IOException e) {
+            OutputSink.getInstance().error("❌ Could not delete ID index for " + csvPath + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Lock lockFor(Path csv) {
+        return LOCKS.computeIfAbsent(csv.toAbsolutePath().normalize(), key -> new ReentrantLock());
+    }
+
+    private boolean binarySearch(long msb, long lsb) {
+        long low = 0;
+        long high = count - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int cmp = compare(sorted.get((int) (2 * mid)), sorted.get((int) (2 * mid + 1)), msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+        int cmp = Long.compare(msb1, msb2);
+        return cmp != 0 ? cmp : Long.compare(lsb1, lsb2);
+    }
+
+    // Rewrites the sorted part from the CSV's id column and clears the log
+    private static void rebuild(Path csv, FileStamp stamp) throws IOException {
+        long[] keys = new long[1024];
+        int size = 0;
+        try (CSVRecordReader records = Files.size(csv) >= FileHandler.MAPPED_READ_THRESHOLD
+                ? MappedRecordReader.open(csv, null)
+                : new CSVRecordReader(Files.newBufferedReader(csv))) {
+            String header = records.header();
+            int idColumn = header == null ? -1 : Arrays.asList(CSVHandler.parseCSVLine(header)).indexOf("id");
+            while (idColumn >= 0 && records.hasNext()) {
+                String[] values = CSVHandler.parseCSVLine(records.next());
+                UUID uuid = idColumn < values.length ? UUIDs.parse(values[idColumn]) : null;
+                if (uuid == null) {
+                    continue;
+                }
+                if (size + 2 > keys.length) {
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                }
+                keys[size++] = uuid.getMostSignificantBits();
+                keys[size++] = uuid.getLeastSignificantBits();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int entries = sortPairs(keys, size / 2);
+        Path index = indexPath(csv);
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(MAGIC).putInt(0).putLong(stamp.size()).putLong(stamp.modified()).putLong(entries);
+            for (int i = 0; i < entries * 2; i++) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(keys[i]);
+            }
+            flush(channel, buffer);
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(logPath(csv));
+    }
+
+    // Sorts (msb, lsb) pairs in place and drops duplicates; returns the number of distinct pairs
+    private static int sortPairs(long[] keys, int pairs) {
+        quickSort(keys, 0, pairs - 1);
+        int distinct = 0;
+        for (int i = 0; i < pairs; i++) {
+            long msb = keys[2 * i];
+            long lsb = keys[2 * i + 1];
+            if (distinct > 0 && keys[2 * distinct - 2] == msb && keys[2 * distinct - 1] == lsb) {
+                continue;
+            }
+            keys[2 * distinct] = msb;
+            keys[2 * distinct + 1] = lsb;
+            distinct++;
+        }
+        return distinct;
+    }
+
+    // Primitive quicksort over pairs, so large indexes are not boxed
+    private static void quickSort(long[] keys, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pivotMsb = keys[2 * mid];
+            long pivotLsb = keys[2 * mid + 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[2 * i], keys[2 * i + 1], pivotMsb, pivotLsb) < 0) {
+                    i++;
+                }
+                while (compare(keys[2 * j], keys[2 * j + 1], pivotMsb, pivotLsb) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, i++, j--);
+                }
+            }
+            // Recurse into the smaller side to bound the stack depth
+            if (j - low < high - i) {
+                quickSort(keys, low, j);
+                low = i;
+            } else {
+                quickSort(keys, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(keys[2 * j - 2], keys[2 * j - 1], keys[2 * j], keys[2 * j + 1]) > 0; j--) {
+                swap(keys, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(long[] keys, int a, int b) {
+        long msb = keys[2 * a];
+        long lsb = keys[2 * a + 1];
+        keys[2 * a] = keys[2 * b];
+        keys[2 * a + 1] = keys[2 * b + 1];
+        keys[2 * b] = msb;
+        keys[2 * b + 1] = lsb;
+    }
+
+    private static UuidHashSet readLog(Path log) throws IOException {
+        UuidHashSet ids = new UuidHashSet();
+        if (!Files.exists(log)) {
+            return ids;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(log));
+        while (buffer.remaining() >= ENTRY_SIZE) {
+            ids.add(buffer.getLong(), buffer.getLong());
+        }
+        return ids;
+    }
+
+    // Returns the CSV's stamp from the index header, or null if there is no valid index
+    private static FileStamp readStamp(Path index) throws IOException {
+        if (!Files.exists(index) || Files.size(index) < HEADER_SIZE) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // keep reading until the header is complete
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                return null;
+            }
+            header.getInt();
+            return new FileStamp(header.getLong(), header.getLong());
+        }
+    }
+
+    private static void writeStamp(Path index, FileStamp stamp) throws IOException {
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(16).putLong(stamp.size()).putLong(stamp.modified()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, 8 + buffer.position());
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static Path indexPath(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".idx");
+    }
+
+    private static Path logPath(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".idx.log");
+    }
+
+    @Override
+    public String toString() {
+        return "IdIndex[" + csv + ", " + size() + " ids, " + indexFile.getFileName() + " + " + logFile.getFileName() + "]";
+    }
+}
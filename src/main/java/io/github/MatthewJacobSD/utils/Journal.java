@@ -0,0 +1,503 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for a CSV file, kept next to it as {@code <file>.journal}.
+ * <p>
+ * Callers hand entities to {@link #append(Object)}. A single committer thread takes everything
+ * queued since its last write and writes it as one batch of length-prefixed, CRC-checked
+ * records. It then forces the journal to disk once for the whole batch and completes the
+ * callers' futures. Journaled rows are copied into the CSV at checkpoints: when the journal
+ * grows past {@link #CHECKPOINT_BYTES}, once it has been idle for {@link #CHECKPOINT_IDLE_MILLIS},
+ * at least every {@link #CHECKPOINT_INTERVAL_MILLIS} while appends keep arriving, and on close.
+ * Like any other append, a checkpoint writes rows in the column order of the CSV's header,
+ * adding columns the file lacks; a header that does not match keeps the rows journaled.
+ * <p>
+ * Before a checkpoint touches the CSV, the CSV's current size is recorded in the journal header.
+ * Once the rows are durable in the CSV, the header is marked done, and only then are the
+ * journaled records dropped. Opening a journal recovers from a crash: a torn record at the end
+ * of the journal is dropped, a CSV left half-written by an interrupted checkpoint is cut back to
+ * the recorded size and the journaled rows are copied in again, and the records of a finished
+ * checkpoint are dropped without being copied twice.
+ *
+ * @param <T> The model type.
+ */
+public final class Journal<T> implements Closeable {
+    static final int MAX_BATCH = 4096;
+    static final long CHECKPOINT_BYTES = 4L * 1024 * 1024;
+    static final long CHECKPOINT_IDLE_MILLIS = 1000;
+    static final long CHECKPOINT_INTERVAL_MILLIS = 5000;
+
+    private static final int MAGIC = 0x4A524E4C; // "JRNL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final long NO_CHECKPOINT = -1;
+    private static final long CHECKPOINT_DONE = -2;
+
+    private final Path csv;
+    private final Path file;
+    private final CSVCodec<T> codec;
+    private final FileChannel channel;
+    private final BlockingQueue<Pending<T>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Pending<T> shutdown = new Pending<>(null, null);
+    private final CRC32 crc = new CRC32();
+    // IDs committed to the journal but not yet checkpointed, so not yet in the CSV or its ID index
+    private final Set<String> journaledIds = ConcurrentHashMap.newKeySet();
+    private long lastCheckpoint = System.nanoTime();
+    private final Thread committer;
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * 1024);
+    private volatile boolean closed;
+    // Lets tests stop a checkpoint at each step, as a crash would
+    volatile CheckpointHook checkpointHook = step -> { };
+
+    private record Pending<T>(T entity, CompletableFuture<Void> done) { }
+
+    /** The durable steps of a checkpoint, in order. */
+    enum CheckpointStep { STARTED, HEADER_WRITTEN, CSV_WRITTEN, MARKED_DONE, RECORDS_DROPPED }
+
+    @FunctionalInterface
+    interface CheckpointHook {
+        void reached(CheckpointStep step) throws IOException;
+    }
+
+    private Journal(Path csv, Path file, CSVCodec<T> codec, FileChannel channel) {
+        this.csv = csv;
+        this.file = file;
+        this.codec = codec;
+        this.channel = channel;
+        this.committer = new Thread(this::run, "journal-" + csv.getFileName());
+        this.committer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal of a CSV file, recovering any rows left by an earlier run first.
+     * @param csvPath The CSV file the journal feeds.
+     * @param type The model class stored in the file.
+     * @return The open journal.
+     * @throws IOException If the journal or the CSV cannot be read or written.
+     */
+    public static <T> Journal<T> open(String csvPath, Class<T> type) throws IOException {
+        Path csv = Path.of(csvPath);
+        Path file = journalPath(csv);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Journal<T> journal = new Journal<>(csv, file, CSVCodec.forClass(type), channel);
+            int recovered = journal.recover();
+            if (recovered > 0) {
+                OutputSink.getInstance().println("♻️ Recovered " + recovered + " journaled rows into " + csvPath);
+            }
+            journal.committer.start();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param csvPath The CSV file path.
+     * @return true if the CSV file has a non-empty journal, e.g. left by a crash.
+     */
+    public static boolean exists(String csvPath) {
+        Path file = journalPath(Path.of(csvPath));
+        try {
+            return Files.exists(file) && Files.size(file) > HEADER_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Queues an entity for the next group commit, waiting if the queue is full.
+     * @param entity The entity to journal.
+     * @return A future completed once the entity is durable in the journal, or failed on an I/O error.
+     */
+    public CompletableFuture<Void> append(T entity) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Journal is closed: " + file));
+        }
+        try {
+            queue.put(new Pending<>(entity, done));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done.completeExceptionally(e);
+        }
+        return done;
+    }
+
+    /**
+     * Checks IDs against the rows committed to the journal but not yet copied into the CSV, which
+     * readers of the CSV cannot see yet.
+     * @param ids The IDs to look for.
+     * @return true if any of them is journaled.
+     */
+    public boolean containsAny(Collection<String> ids) {
+        for (String id : ids) {
+            if (id != null && journaledIds.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the committer after it has written everything queued, then checkpoints the journal into the CSV.
+     * @throws IOException If the final checkpoint fails; the rows stay in the journal for the next open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(shutdown);
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything queued after the shutdown marker missed the last batch
+        for (Pending<T> pending; (pending = queue.poll()) != null; ) {
+            if (pending.done != null) {
+                pending.done.completeExceptionally(new IllegalStateException("Journal is closed: " + file));
+            }
+        }
+        try {
+            checkpoint();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void run() {
+        List<Pending<T>> batch = new ArrayList<>();
+        while (true) {
+            Pending<T> first;
+            try {
+                first = queue.poll(CHECKPOINT_IDLE_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                checkpointQuietly();
+                continue;
+            }
+
+            batch.clear();
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            boolean stop = batch.remove(shutdown);
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            if (stop) {
+                return;
+            }
+            try {
+                // A steady stream of appends never leaves the queue idle, so the age of the rows bounds it too
+                long sinceCheckpoint = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastCheckpoint);
+                if (channel.size() >= CHECKPOINT_BYTES || sinceCheckpoint >= CHECKPOINT_INTERVAL_MILLIS) {
+                    checkpointQuietly();
+                }
+            } catch (IOException e) {
+                OutputSink.getInstance().error("❌ Error reading journal size for " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Writes a batch with a single force; on failure the partial batch is cut off and every caller is failed
+    private void commit(List<Pending<T>> batch) {
+        Events.JournalCommit event = new Events.JournalCommit();
+        event.begin();
+        long end = -1;
+        try {
+            end = channel.size();
+            ByteBuffer buffer = encode(batch);
+            channel.position(end);
+            event.bytes = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            event.success = true;
+        } catch (IOException | RuntimeException e) {
+            if (end >= 0) {
+                try {
+                    channel.truncate(end);
+                } catch (IOException ignored) {
+                    // Recovery drops the torn record on next open
+                }
+            }
+            batch.forEach(pending -> pending.done.completeExceptionally(e));
+            return;
+        } finally {
+            commitEvent(event, batch.size());
+        }
+        for (Pending<T> pending : batch) {
+            String id = codec.id(pending.entity);
+            if (id != null) {
+                journaledIds.add(id);
+            }
+        }
+        batch.forEach(pending -> pending.done.complete(null));
+    }
+
+    private void commitEvent(Events.JournalCommit event, int entities) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.toString();
+            event.entityType = codec.type();
+            event.entities = entities;
+            event.commit();
+        }
+    }
+
+    private ByteBuffer encode(List<Pending<T>> batch) {
+        batchBuffer.clear();
+        StringBuilder line = new StringBuilder(256);
+        for (Pending<T> pending : batch) {
+            line.setLength(0);
+            codec.writeRow(pending.entity, line);
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            if (batchBuffer.remaining() < RECORD_HEADER_SIZE + bytes.length) {
+                int capacity = Math.max(batchBuffer.capacity() * 2, batchBuffer.position() + RECORD_HEADER_SIZE + bytes.length);
+                batchBuffer = ByteBuffer.allocate(capacity).put(batchBuffer.flip());
+            }
+            crc.reset();
+            crc.update(bytes);
+            batchBuffer.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        }
+        return batchBuffer.flip();
+    }
+
+    // Validates the journal file, repairs the CSV after an interrupted checkpoint and replays the journal
+    private int recover() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            writeHeader(NO_CHECKPOINT);
+            return 0;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a journal file: " + file);
+        }
+        long checkpointFrom = header.getLong();
+        if (checkpointFrom == CHECKPOINT_DONE) {
+            // The rows reached the CSV before the crash
+            channel.truncate(HEADER_SIZE);
+            channel.force(true);
+            writeHeader(NO_CHECKPOINT);
+            return 0;
+        }
+        if (checkpointFrom >= 0 && Files.exists(csv) && Files.size(csv) > checkpointFrom) {
+            try (FileChannel out = FileChannel.open(csv, StandardOpenOption.WRITE)) {
+                out.truncate(checkpointFrom);
+                out.force(true);
+            }
+            ReferenceRegistry.getInstance().invalidate(csv.toString());
+            IdIndex.invalidate(csv.toString());
+        }
+        return checkpoint();
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            OutputSink.getInstance().error("❌ Error checkpointing journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Copies the journaled rows into the CSV and empties the journal; returns the number of rows copied
+    private int checkpoint() throws IOException {
+        lastCheckpoint = System.nanoTime();
+        List<String> rows = readRows();
+        if (rows.isEmpty()) {
+            if (channel.size() > HEADER_SIZE) {
+                channel.truncate(HEADER_SIZE);
+                channel.force(true);
+            }
+            return 0;
+        }
+        checkpointHook.reached(CheckpointStep.STARTED);
+
+        // Readers of the CSV through a Repository wait for the checkpoint
+        Lock csvLock = Repository.lockFor(csv).writeLock();
+        csvLock.lock();
+        try {
+            // Older files gain the columns added to the model since, as with any other append
+            boolean rewritten = Files.exists(csv) && Files.size(csv) > 0 && FileHandler.addMissingColumns(csv, codec);
+            try (FileChannel out = FileChannel.open(csv, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long sizeBefore = out.size();
+                long modifiedBefore = csv.toFile().lastModified();
+                // Rows follow the column order of the existing header, not the order they were journaled in
+                int[] order = sizeBefore > 0 ? columnOrder(out) : null;
+                writeHeader(sizeBefore);
+                checkpointHook.reached(CheckpointStep.HEADER_WRITTEN);
+
+                StringBuilder text = new StringBuilder(rows.size() * 128);
+                if (sizeBefore == 0) {
+                    codec.writeHeader(text);
+                    text.append('\n');
+                } else if (!endsWithNewline(out)) {
+                    text.append('\n');
+                }
+                List<String> ids = new ArrayList<>(rows.size());
+                for (T entity : decode(rows)) {
+                    if (order != null) {
+                        codec.writeRow(entity, text, order);
+                    } else {
+                        codec.writeRow(entity, text);
+                    }
+                    text.append('\n');
+                    String id = codec.id(entity);
+                    if (id != null) {
+                        ids.add(id);
+                    }
+                }
+
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+                out.position(sizeBefore);
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+                out.force(false);
+                checkpointHook.reached(CheckpointStep.CSV_WRITTEN);
+
+                ReferenceRegistry.getInstance().invalidate(csv.toString());
+                if (sizeBefore > 0 && !rewritten) {
+                    IdIndex.appended(csv.toString(), sizeBefore, modifiedBefore, ids);
+                } else {
+                    IdIndex.invalidate(csv.toString());
+                }
+            }
+        } finally {
+            csvLock.unlock();
+        }
+
+        // A crash from here on drops the records on open instead of copying them again
+        writeHeader(CHECKPOINT_DONE);
+        checkpointHook.reached(CheckpointStep.MARKED_DONE);
+        channel.truncate(HEADER_SIZE);
+        channel.force(true);
+        checkpointHook.reached(CheckpointStep.RECORDS_DROPPED);
+        writeHeader(NO_CHECKPOINT);
+        journaledIds.clear();
+        return rows.size();
+    }
+
+    // Maps the CSV's header to codec columns; a mismatch fails the checkpoint and the rows stay journaled
+    private int[] columnOrder(FileChannel out) throws IOException {
+        String[] headers = CSVHandler.parseCSVLine(FileHandler.readHeader(out));
+        int[] order = codec.columnOrder(headers);
+        if (order == null) {
+            throw new IOException("CSV headers do not match class fields. Expected: " + codec.fieldNames()
+                    + ", Found: " + Arrays.toString(headers));
+        }
+        return order;
+    }
+
+    // Journaled rows are in field order; only their format is checked, as they were validated before journaling
+    private List<T> decode(List<String> rows) throws IOException {
+        CSVCodec.RowReader<T> reader = codec.reader(codec.fieldNames().toArray(String[]::new));
+        List<T> entities = new ArrayList<>(rows.size());
+        StringBuilder errors = new StringBuilder();
+        for (String row : rows) {
+            String[] values = CSVHandler.parseCSVLine(row);
+            T entity = values.length == reader.columnCount() ? reader.read(values, errors, null) : null;
+            if (entity == null) {
+                throw new IOException("Unreadable journal row in " + file + ": " + row);
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    // Reads the intact records after the header, cutting off a torn or corrupt tail
+    private List<String> readRows() throws IOException {
+        long size = channel.size();
+        List<String> rows = new ArrayList<>();
+        if (size <= HEADER_SIZE) {
+            return rows;
+        }
+        ByteBuffer in = ByteBuffer.allocate((int) (size - HEADER_SIZE));
+        while (in.hasRemaining() && channel.read(in, HEADER_SIZE + in.position()) > 0) {
+            // keep reading until the buffer is full
+        }
+        in.flip();
+
+        while (in.remaining() >= RECORD_HEADER_SIZE) {
+            int start = in.position();
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                in.position(start);
+                break;
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            crc.reset();
+            crc.update(bytes);
+            if ((int) crc.getValue() != checksum) {
+                in.position(start);
+                break;
+            }
+            rows.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        if (in.hasRemaining()) {
+            OutputSink.getInstance().error("❌ Dropping " + in.remaining() + " bytes of torn journal data in " + file);
+            channel.truncate(HEADER_SIZE + in.position());
+            channel.force(true);
+        }
+        return rows;
+    }
+
+    private void writeHeader(long checkpointFrom) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(checkpointFrom).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+    }
+
+    private static boolean endsWithNewline(FileChannel channel) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, channel.size() - 1);
+        return last.get(0) == '\n';
+    }
+
+    private static Path journalPath(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".journal");
+    }
+}
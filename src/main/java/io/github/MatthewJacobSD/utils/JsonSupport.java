@@ -0,0 +1,46 @@
+package io.github.MatthewJacobSD.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.function.BiFunction;
+
+/**
+ * Shared Gson setup for JSON input and output.
+ * <p>
+ * Dates and date-times use the same formats as the CSV files ({@link Validator#DATE_FORMATTER}
+ * and {@link Validator#DATETIME_FORMATTER}), so a record looks the same in both.
+ */
+public final class JsonSupport {
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, adapter(Validator.DATE_FORMATTER, LocalDate::parse))
+            .registerTypeAdapter(LocalDateTime.class, adapter(Validator.DATETIME_FORMATTER, LocalDateTime::parse))
+            .disableHtmlEscaping()
+            .create();
+
+    private JsonSupport() {
+    }
+
+    private static <T extends TemporalAccessor> TypeAdapter<T> adapter(DateTimeFormatter formatter,
+                                              BiFunction<CharSequence, DateTimeFormatter, T> parser) {
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                out.value(formatter.format(value));
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                return parser.apply(in.nextString(), formatter);
+            }
+        }.nullSafe();
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads CSV records straight from a memory-mapped file.
+ * <p>
+ * The file is mapped read-only in regions of at most {@link #REGION_SIZE} bytes, so files over
+ * 2 GB work too. Records are scanned in the mapped pages, and only the bytes of the current record
+ * are copied into a reusable scratch array before being decoded. The file contents never sit
+ * in the heap as a whole. Like {@link CSVRecordReader}, line breaks inside quotes don't end a record.
+ */
+public class MappedRecordReader extends CSVRecordReader {
+    static final long REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long end;
+    private long position;
+    private byte[] scratch = new byte[512];
+
+    private MappedRecordReader(FileChannel channel, MappedByteBuffer[] regions, long start, long end,
+                               IntConsumer onRecord) {
+        super(onRecord);
+        this.channel = channel;
+        this.regions = regions;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Maps a whole file for reading.
+     * @param path The file to map.
+     * @param onRecord Optional callback receiving the running count of data records read.
+     * @return A record reader over the mapped file; closing it closes the channel.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public static MappedRecordReader open(Path path, IntConsumer onRecord) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            int count = (int) ((size + REGION_SIZE - 1) / REGION_SIZE);
+            MappedByteBuffer[] regions = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = i * REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(REGION_SIZE, size - offset));
+            }
+            return new MappedRecordReader(channel, regions, 0, size, onRecord);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected String readRecord() {
+        while (position < end) {
+            int length = 0;
+            boolean inQuotes = false;
+
+            scan:
+            while (position < end) {
+                MappedByteBuffer region = regions[(int) (position / REGION_SIZE)];
+                int offset = (int) (position % REGION_SIZE);
+                int limit = (int) Math.min(region.limit(), offset + (end - position));
+                for (int i = offset; i < limit; i++) {
+                    byte b = region.get(i);
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n' && !inQuotes) {
+                        position += i - offset + 1;
+                        break scan;
+                    }
+                    if (length == scratch.length) {
+                        scratch = Arrays.copyOf(scratch, length * 2);
+                    }
+                    scratch[length++] = b;
+                }
+                position += limit - offset;
+            }
+
+            String line = new String(scratch, 0, length, StandardCharsets.UTF_8).trim();
+            if (!line.isEmpty()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
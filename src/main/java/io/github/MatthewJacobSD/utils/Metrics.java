@@ -0,0 +1,351 @@
+package io.github.MatthewJacobSD.utils;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide counters, latency histograms and throughput meters, exported as JSON.
+ * <p>
+ * Metrics are off until {@link #setEnabled(boolean)} turns them on; while off, recording costs
+ * a read of one volatile flag. Components look their metrics up once, into static fields, and
+ * record without locks: counters are {@link LongAdder}s, and histograms count into log-linear
+ * buckets (8 per power of two, so percentiles are within 12.5%). Per-row timers time one call
+ * in {@link Histogram#SAMPLE_RATE}, since reading the clock twice per row would cost more than
+ * the rest of the bookkeeping.
+ */
+public final class Metrics {
+    private static final Metrics INSTANCE = new Metrics();
+
+    private static volatile boolean enabled;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Throughput> throughputs = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    private Metrics() {}
+
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * @param name The metric name, e.g. {@code csv.rows}.
+     * @return The counter with that name, created on first use.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * @param name The metric name.
+     * @param sampled Whether only one call in {@link Histogram#SAMPLE_RATE} is timed, for per-row timers.
+     * @return The latency histogram with that name, created on first use.
+     */
+    public Histogram histogram(String name, boolean sampled) {
+        return histograms.computeIfAbsent(name, key -> new Histogram(sampled));
+    }
+
+    /**
+     * @param name The metric name.
+     * @return The throughput meter with that name, created on first use.
+     */
+    public Throughput throughput(String name) {
+        return throughputs.computeIfAbsent(name, key -> new Throughput());
+    }
+
+    /**
+     * Registers a value computed when metrics are exported, such as a hit rate.
+     * @param name The metric name.
+     * @param value Computes the value.
+     */
+    public void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * @return A snapshot of every metric, with latencies in microseconds.
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("timestamp", Instant.now().toString());
+        json.addProperty("enabled", enabled);
+
+        JsonObject counterJson = new JsonObject();
+        new TreeMap<>(counters).forEach((name, counter) -> counterJson.addProperty(name, counter.sum()));
+        json.add("counters", counterJson);
+
+        JsonObject gaugeJson = new JsonObject();
+        new TreeMap<>(gauges).forEach((name, gauge) -> {
+            double value = gauge.getAsDouble();
+            if (Double.isFinite(value)) {
+                gaugeJson.addProperty(name, value);
+            }
+        });
+        json.add("gauges", gaugeJson);
+
+        JsonObject throughputJson = new JsonObject();
+        new TreeMap<>(throughputs).forEach((name, throughput) -> throughputJson.add(name, throughput.toJson()));
+        json.add("throughput", throughputJson);
+
+        JsonObject histogramJson = new JsonObject();
+        new TreeMap<>(histograms).forEach((name, histogram) -> histogramJson.add(name, histogram.toJson()));
+        json.add("latency", histogramJson);
+        return json;
+    }
+
+    /**
+     * Writes a snapshot of every metric to a JSON file, replacing it atomically.
+     * @param file The target file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, JsonSupport.GSON.toJson(toJson()), StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a snapshot to a file at a fixed interval, on a daemon thread, until {@link #stopReporting()}.
+     * @param file The target file.
+     * @param interval The time between snapshots.
+     */
+    public synchronized void startReporting(Path file, Duration interval) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                writeTo(file);
+            } catch (IOException | UncheckedIOException e) {
+                OutputSink.getInstance().error("❌ Error writing metrics to " + file + ": " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * An event count.
+     */
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() {}
+
+        public void increment() {
+            if (enabled) {
+                count.increment();
+            }
+        }
+
+        public void add(long amount) {
+            if (enabled) {
+                count.add(amount);
+            }
+        }
+
+        public long sum() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Items processed over time spent, e.g. rows per second of load time.
+     */
+    public static final class Throughput {
+        private final LongAdder items = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        private Throughput() {}
+
+        /**
+         * @param items The items processed.
+         * @param nanos The time they took.
+         */
+        public void record(long items, long nanos) {
+            if (enabled) {
+                this.items.add(items);
+                this.nanos.add(nanos);
+            }
+        }
+
+        JsonObject toJson() {
+            long count = items.sum();
+            double seconds = nanos.sum() / 1e9;
+            JsonObject json = new JsonObject();
+            json.addProperty("items", count);
+            json.addProperty("seconds", seconds);
+            if (seconds > 0) {
+                json.addProperty("perSecond", Math.round(count / seconds));
+            }
+            return json;
+        }
+    }
+
+    /**
+     * A latency distribution in nanoseconds. Time a call with
+     * <pre>
+     * long start = histogram.start();
+     * ...
+     * histogram.stop(start);
+     * </pre>
+     */
+    public static final class Histogram {
+        /** A sampled histogram times one call in this many; a power of two. */
+        public static final int SAMPLE_RATE = 16;
+
+        private static final long NOT_TIMED = Long.MIN_VALUE;
+        private static final int LINEAR_BUCKETS = 16;
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = LINEAR_BUCKETS + (63 - 4) * SUB_BUCKETS;
+
+        private final boolean sampled;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram(boolean sampled) {
+            this.sampled = sampled;
+        }
+
+        /**
+         * @return The start time to pass to {@link #stop(long)}; a marker if this call is not timed.
+         */
+        public long start() {
+            if (!enabled || (sampled && (ThreadLocalRandom.current().nextInt() & (SAMPLE_RATE - 1)) != 0)) {
+                return NOT_TIMED;
+            }
+            return System.nanoTime();
+        }
+
+        /**
+         * @param start The value returned by {@link #start()}.
+         */
+        public void stop(long start) {
+            if (start != NOT_TIMED) {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Records a duration measured elsewhere.
+         * @param nanos The duration.
+         */
+        public void record(long nanos) {
+            if (!enabled) {
+                return;
+            }
+            long value = Math.max(nanos, 0);
+            buckets.incrementAndGet(bucket(value));
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        // Linear below 16 ns, then 8 buckets per power of two
+        static int bucket(long value) {
+            if (value < LINEAR_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+        }
+
+        // The middle of a bucket's range
+        static long midpoint(int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket;
+            }
+            int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+            int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (1L << exponent) + sub * width + width / 2;
+        }
+
+        /**
+         * @param quantile The quantile, from 0 to 1.
+         * @return The approximate latency at that quantile in nanoseconds, or 0 if nothing was recorded.
+         */
+        public long percentile(double quantile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(midpoint(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        JsonObject toJson() {
+            long samples = count.sum();
+            JsonObject json = new JsonObject();
+            json.addProperty("count", samples);
+            if (sampled) {
+                json.addProperty("sampleRate", SAMPLE_RATE);
+            }
+            if (samples > 0) {
+                json.addProperty("meanMicros", sum.sum() / 1e3 / samples);
+                json.addProperty("p50Micros", percentile(0.5) / 1e3);
+                json.addProperty("p99Micros", percentile(0.99) / 1e3);
+                json.addProperty("p999Micros", percentile(0.999) / 1e3);
+                json.addProperty("maxMicros", max.get() / 1e3);
+            }
+            return json;
+        }
+    }
+}
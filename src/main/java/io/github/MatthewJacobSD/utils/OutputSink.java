@@ -0,0 +1,219 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The console output of the application, buffered and gated by a {@link Level}.
+ * <p>
+ * Messages, prompts and errors are always shown and flushed at once. Bulk output is written
+ * through a 64 KB buffer instead of a system call per line:
+ * <ul>
+ *   <li>Entity listings are only rendered at {@link Level#VERBOSE}, so {@code toString()} is
+ *       not called at all otherwise.</li>
+ *   <li>Rows rejected while loading are printed one by one at {@link Level#VERBOSE}. At other
+ *       levels they are only counted, for a summary.</li>
+ *   <li>Progress is redrawn at most every {@link #PROGRESS_INTERVAL_MILLIS}, with throughput
+ *       and, when the total is known, the time left. It is hidden at {@link Level#QUIET}.</li>
+ * </ul>
+ * Errors go to standard error after standard output has been flushed, so the two stay in order.
+ */
+public final class OutputSink {
+    public static final long PROGRESS_INTERVAL_MILLIS = 500;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final OutputSink INSTANCE = new OutputSink(System.out, System.err);
+
+    static {
+        // Buffered lines are not lost when the application exits without a final message
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::flush, "output-flush"));
+    }
+
+    /**
+     * How much is printed.
+     */
+    public enum Level {
+        /** Messages, prompts and errors only. */
+        QUIET,
+        /** Also progress and counts of rejected rows. */
+        SUMMARY,
+        /** Also every loaded entity and every rejected row. */
+        VERBOSE
+    }
+
+    private final PrintWriter out;
+    private final PrintStream err;
+    private final LongAdder rejected = new LongAdder();
+    private volatile Level level = Level.VERBOSE;
+
+    private OutputSink(PrintStream out, PrintStream err) {
+        this.out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, out.charset()), BUFFER_SIZE), false);
+        this.err = err;
+    }
+
+    public static OutputSink getInstance() {
+        return INSTANCE;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * @param level The level a piece of output needs.
+     * @return true if output of that level is shown.
+     */
+    public boolean isEnabled(Level level) {
+        return this.level.compareTo(level) >= 0;
+    }
+
+    /**
+     * Prints a line that is always shown, such as a status message or a menu entry.
+     * @param line The line.
+     */
+    public synchronized void println(String line) {
+        out.println(line);
+        out.flush();
+    }
+
+    /**
+     * Prints text without a line break, e.g. a prompt, and flushes it before input is read.
+     * @param text The text.
+     */
+    public synchronized void print(String text) {
+        out.print(text);
+        out.flush();
+    }
+
+    /**
+     * Prints an error to standard error; always shown.
+     * @param message The message.
+     */
+    public synchronized void error(String message) {
+        out.flush();
+        err.println(message);
+    }
+
+    /**
+     * Buffers one entity of a listing. It is only rendered at {@link Level#VERBOSE}.
+     * @param prefix Printed before the entity.
+     * @param entity The entity.
+     */
+    public void entity(String prefix, Object entity) {
+        if (level == Level.VERBOSE) {
+            String text = String.valueOf(entity);
+            synchronized (this) {
+                out.append(prefix).append(text).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Reports a row rejected while loading. The message is only built and printed at
+     * {@link Level#VERBOSE}; it is always counted. May be called from several threads.
+     * @param message Builds the message.
+     */
+    public void reject(Supplier<String> message) {
+        rejected.increment();
+        if (level == Level.VERBOSE) {
+            error(message.get());
+        }
+    }
+
+    /**
+     * @return The number of rows rejected since start.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Writes buffered output to the console.
+     */
+    public synchronized void flush() {
+        out.flush();
+    }
+
+    /**
+     * Starts a progress display for one pass over an input.
+     * @param total The total size of the input, e.g. in bytes, or -1 if unknown.
+     * @return The progress display; feed it the running count of lines.
+     */
+    public Progress progress(long total) {
+        return new Progress(total);
+    }
+
+    // Formats seconds as m:ss, or h:mm:ss from an hour
+    static String formatDuration(long seconds) {
+        if (seconds >= 3600) {
+            return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+        }
+        return String.format(Locale.ROOT, "%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * A throttled progress line for one pass over an input, fed from a single thread.
+     */
+    public final class Progress implements IntConsumer {
+        // The clock is read once per this many lines
+        private static final int CHECK_MASK = 0xFF;
+
+        private final long total;
+        private final long start = System.nanoTime();
+        private long nextReport = start + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MILLIS);
+        private LongSupplier position;
+
+        private Progress(long total) {
+            this.total = total;
+        }
+
+        /**
+         * Sets where the pass has got to, in the same unit as the total, for the time left.
+         * @param position Returns the current position.
+         */
+        public void track(LongSupplier position) {
+            this.position = position;
+        }
+
+        @Override
+        public void accept(int lines) {
+            update(lines);
+        }
+
+        /**
+         * @param lines The number of lines processed so far.
+         */
+        public void update(long lines) {
+            if ((lines & CHECK_MASK) != 0 || !isEnabled(Level.SUMMARY)) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (now < nextReport) {
+                return;
+            }
+            nextReport = now + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MILLIS);
+
+            double seconds = (now - start) / 1e9;
+            StringBuilder line = new StringBuilder(64)
+                    .append("⏳ Processed ").append(lines).append(" lines (")
+                    .append(Math.round(lines / seconds)).append(" lines/s");
+            long done = position != null ? position.getAsLong() : -1;
+            if (total > 0 && done > 0 && done < total) {
+                line.append(", ETA ").append(formatDuration(Math.round(seconds * (total - done) / done)));
+            }
+            print(line.append(")\r").toString());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Process-wide cache of the IDs stored in reference CSV files.
+ * <p>
+ * Each file is parsed once and shared by every service. An entry is reloaded when the file's
+ * modification time or size changes; the file is checked at most once per
+ * {@link #STAT_INTERVAL_NANOS} so hot validation loops don't stat the file for every row.
+ * IDs are kept in a {@link UuidHashSet}; large sets get a Bloom filter so misses stay cheap.
+ */
+public final class ReferenceRegistry {
+    private static final ReferenceRegistry INSTANCE = new ReferenceRegistry();
+    private static final long STAT_INTERVAL_NANOS = 500_000_000L;
+    private static final int BLOOM_FILTER_MIN_SIZE = 1 << 16;
+    private static final double BLOOM_FILTER_FPP = 0.01;
+
+    // A hit is served from memory, a revalidation stats the file and finds it unchanged, a load reads it
+    private static final Metrics.Counter CACHE_HITS = Metrics.getInstance().counter("references.cache.hits");
+    private static final Metrics.Counter CACHE_REVALIDATIONS = Metrics.getInstance().counter("references.cache.revalidations");
+    private static final Metrics.Counter CACHE_LOADS = Metrics.getInstance().counter("references.cache.loads");
+    private static final Metrics.Histogram LOAD_LATENCY = Metrics.getInstance().histogram("references.cache.load", false);
+
+    static {
+        Metrics.getInstance().gauge("references.cache.hitRate", () -> {
+            double hits = CACHE_HITS.sum() + CACHE_REVALIDATIONS.sum();
+            return hits / (hits + CACHE_LOADS.sum());
+        });
+    }
+
+    // Keyed by the path as given, so the hot lookup path doesn't resolve it every time
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private ReferenceRegistry() {}
+
+    public static ReferenceRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks whether an ID exists in a reference file.
+     * @param path The reference CSV file path.
+     * @param type The model class stored in the file.
+     * @param id The ID to look up.
+     * @return true if the file contains a valid row with that ID.
+     */
+    public boolean contains(String path, Class<?> type, String id) {
+        return id != null && entry(path, type).ids.contains(id);
+    }
+
+    /**
+     * @param path The reference CSV file path.
+     * @param type The model class stored in the file.
+     * @return true if the file exists and holds at least one valid row.
+     */
+    public boolean hasEntries(String path, Class<?> type) {
+        return !entry(path, type).ids.isEmpty();
+    }
+
+    /**
+     * Drops the cached IDs for a file, e.g. after it has been written.
+     * @param path The file path.
+     */
+    public void invalidate(String path) {
+        Path file = normalize(path);
+        entries.values().removeIf(entry -> entry.file.equals(file));
+    }
+
+    private Entry entry(String path, Class<?> type) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(path);
+        if (entry != null && entry.type == type && now - entry.checkedAt < STAT_INTERVAL_NANOS) {
+            CACHE_HITS.increment();
+            return entry;
+        }
+
+        synchronized (this) {
+            Path file = normalize(path);
+            entry = entries.get(path);
+            FileStamp stamp = FileStamp.ofOrMissing(file);
+            if (entry != null && entry.type == type && entry.stamp.equals(stamp)) {
+                CACHE_REVALIDATIONS.increment();
+                entry.checkedAt = now;
+                return entry;
+            }
+            CACHE_LOADS.increment();
+            long start = LOAD_LATENCY.start();
+            Events.ReferenceLoad event = new Events.ReferenceLoad();
+            event.begin();
+            UuidHashSet ids = loadIds(file, type, stamp, event);
+            LOAD_LATENCY.stop(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.toString();
+                event.entityType = type;
+                event.ids = ids.size();
+                event.commit();
+            }
+            entry = new Entry(file, type, stamp, ids, now);
+            entries.put(path, entry);
+            return entry;
+        }
+    }
+
+    private static UuidHashSet loadIds(Path file, Class<?> type, FileStamp stamp, Events.ReferenceLoad event) {
+        UuidHashSet ids = new UuidHashSet();
+        if (!stamp.exists()) {
+            return ids;
+        }
+        try {
+            Snapshot<?> snapshot = Snapshot.open(file.toString(), type);
+            if (snapshot != null) {
+                snapshot.collectUuids("id", ids);
+                event.fromSnapshot = true;
+                return ids.size() >= BLOOM_FILTER_MIN_SIZE ? ids.withBloomFilter(BLOOM_FILTER_FPP) : ids;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // Fall back to parsing the CSV
+            ids = new UuidHashSet();
+        }
+
+        CSVCodec<?> codec = CSVCodec.forClass(type);
+        try (Stream<?> items = CSVHandler.stream(new CSVRecordReader(Files.newBufferedReader(file)), type, null)) {
+            items.map(codec::id)
+                    .filter(Objects::nonNull)
+                    .forEach(ids::add);
+        } catch (IOException | UncheckedIOException e) {
+            OutputSink.getInstance().error("❌ Error loading reference file " + file + ": " + e.getMessage());
+            return new UuidHashSet();
+        }
+        return ids.size() >= BLOOM_FILTER_MIN_SIZE ? ids.withBloomFilter(BLOOM_FILTER_FPP) : ids;
+    }
+
+    private static Path normalize(String path) {
+        return Path.of(path).toAbsolutePath().normalize();
+    }
+
+    private static final class Entry {
+        final Path file;
+        final Class<?> type;
+        final FileStamp stamp;
+        final UuidHashSet ids;
+        volatile long checkedAt;
+
+        Entry(Path file, Class<?> type, FileStamp stamp, UuidHashSet ids, long checkedAt) {
+            this.file = file;
+            this.type = type;
+            this.stamp = stamp;
+            this.ids = ids;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
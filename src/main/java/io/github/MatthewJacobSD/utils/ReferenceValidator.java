@@ -1,18 +1,18 @@
 package io.github.MatthewJacobSD.utils;
 
 import io.github.MatthewJacobSD.models.*;
-import java.lang.reflect.Field;
 import java.util.*;
 
 public class ReferenceValidator {
-    private final FileHandler fileHandler;
+    private static final Metrics.Counter LOOKUPS = Metrics.getInstance().counter("references.lookups");
+    private static final Metrics.Counter MISSING = Metrics.getInstance().counter("references.missing");
+    private static final Metrics.Histogram LOOKUP_LATENCY = Metrics.getInstance().histogram("references.lookup", true);
+
     private final ConsoleUI consoleUI;
     private final Map<String, String> referenceFilePaths;
-    private final Map<String, List<String>> idCache = new HashMap<>();
+    private final ReferenceRegistry registry = ReferenceRegistry.getInstance();
 
-    public ReferenceValidator(FileHandler fileHandler, ConsoleUI consoleUI,
-                              Map<String, String> referenceFilePaths) {
-        this.fileHandler = fileHandler;
+    public ReferenceValidator(ConsoleUI consoleUI, Map<String, String> referenceFilePaths) {
         this.consoleUI = consoleUI;
         this.referenceFilePaths = referenceFilePaths;
     }
@@ -23,37 +23,30 @@ public class ReferenceValidator {
             return false;
         }
 
-        if (!idCache.containsKey(referenceType)) {
-            loadReferenceIds(referenceType);
+        String filePath = referenceFilePaths.get(referenceType);
+        Class<?> refClass;
+        try {
+            refClass = getReferenceClass(referenceType);
+        } catch (IllegalArgumentException e) {
+            consoleUI.showError("Error processing " + referenceType + " file: " + e.getMessage());
+            return false;
         }
 
-        boolean exists = idCache.get(referenceType).contains(idToCheck);
-        if (!exists) {
-            consoleUI.showError(referenceType + " ID " + idToCheck + " not found in " +
-                    referenceFilePaths.get(referenceType));
+        LOOKUPS.increment();
+        long start = LOOKUP_LATENCY.start();
+        boolean found = registry.contains(filePath, refClass, idToCheck);
+        LOOKUP_LATENCY.stop(start);
+        if (found) {
+            return true;
         }
-        return exists;
-    }
-
-    private void loadReferenceIds(String referenceType) {
-        String filePath = referenceFilePaths.get(referenceType);
-        String content = fileHandler.readFile(filePath);
+        MISSING.increment();
 
-        if (content == null || content.isEmpty()) {
+        if (!registry.hasEntries(filePath, refClass)) {
             consoleUI.showError("Could not load reference file: " + filePath);
-            idCache.put(referenceType, Collections.emptyList());
-            return;
-        }
-
-        try {
-            Class<?> refClass = getReferenceClass(referenceType);
-            List<?> items = CSVHandler.fromCSV(content, refClass, null);
-            List<String> ids = extractIdsFromItems(items);
-            idCache.put(referenceType, ids);
-        } catch (Exception e) {
-            consoleUI.showError("Error processing " + referenceType + " file: " + e.getMessage());
-            idCache.put(referenceType, Collections.emptyList());
+        } else {
+            consoleUI.showRejected(referenceType + " ID " + idToCheck + " not found in " + filePath);
         }
+        return false;
     }
 
     private Class<?> getReferenceClass(String referenceType) {
@@ -64,19 +57,4 @@ public class ReferenceValidator {
             default -> throw new IllegalArgumentException("Unknown reference type: " + referenceType);
         };
     }
-
-    private List<String> extractIdsFromItems(List<?> items) {
-        return items.stream()
-                .map(item -> {
-                    try {
-                        Field idField = item.getClass().getDeclaredField("id");
-                        idField.setAccessible(true);
-                        return (String) idField.get(item);
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .toList();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Headless, thread-safe access to the entities stored in one CSV file.
+ * <p>
+ * Nothing is prompted or printed; failures are thrown as {@link IOException}. Stored rows only
+ * have their format checked, so rows dated in the past are still read; validating new entities
+ * is left to the services. Reads share the file and writes take it
+ * exclusively, through a read/write lock per file that every repository of the file and its
+ * {@link Journal} use, so a reader never sees half of an append.
+ *
+ * @param <T> The model type.
+ */
+public final class Repository<T> {
+    // One lock per file, however many repositories are opened on it
+    private static final Map<Path, ReadWriteLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final FileHandler fileHandler;
+    private final Path file;
+    private final Class<T> type;
+    private final CSVCodec<T> codec;
+    private final ReadWriteLock lock;
+
+    /**
+     * @param fileHandler Writes the rows; only its prompt-free methods are used.
+     * @param csvPath The CSV file path; the file need not exist yet.
+     * @param type The model class stored in the file.
+     */
+    public Repository(FileHandler fileHandler, String csvPath, Class<T> type) {
+        this.fileHandler = Objects.requireNonNull(fileHandler, "fileHandler");
+        this.file = Path.of(csvPath);
+        this.type = Objects.requireNonNull(type, "type");
+        this.codec = CSVCodec.forClass(type);
+        this.lock = lockFor(file);
+    }
+
+    // The lock shared by everything that reads or writes a file
+    static ReadWriteLock lockFor(Path file) {
+        return LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), key -> new ReentrantReadWriteLock());
+    }
+
+    public String getPath() {
+        return file.toString();
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Reads every row of the file.
+     * @return The entities in file order; empty if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public List<T> loadAll() throws IOException {
+        try (Stream<T> entities = stream()) {
+            return entities.toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Streams the rows of the file one at a time. Writers wait until the stream is closed, so it must
+     * be closed, on the thread that opened it, e.g. with try-with-resources.
+     * @return A sequential stream of entities; empty if the file does not exist.
+     * @throws IOException If the file cannot be opened. Read errors later on are thrown as {@link UncheckedIOException}.
+     */
+    public Stream<T> stream() throws IOException {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            if (!Files.exists(file)) {
+                read.unlock();
+                return Stream.empty();
+            }
+            // Stored rows are read whatever their dates; only new entities must be in the future
+            return CSVHandler.streamStored(new CSVRecordReader(Files.newBufferedReader(file)), type)
+                    .onClose(read::unlock);
+        } catch (IOException | RuntimeException e) {
+            read.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks an entity up by ID. The file's ID index answers for IDs that are not stored, so only hits
+     * scan the file.
+     * @param id The ID.
+     * @return The first entity with that ID, or null if there is none.
+     * @throws IOException If the file or its index cannot be read.
+     */
+    public T findById(String id) throws IOException {
+        if (id == null) {
+            return null;
+        }
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            IdIndex index = IdIndex.open(file.toString());
+            if (index == null || !index.contains(id)) {
+                return null;
+            }
+        } finally {
+            read.unlock();
+        }
+        try (Stream<T> entities = stream()) {
+            return entities.filter(entity -> id.equals(codec.id(entity))).findFirst().orElse(null);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Replaces the contents of the file with the given entities.
+     * @param entities The entities; if there are none only the header is written.
+     * @return The number of rows written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long saveAll(Collection<? extends T> entities) throws IOException {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            if (entities.isEmpty()) {
+                StringBuilder header = new StringBuilder();
+                codec.writeHeader(header);
+                Files.writeString(file, header.append('\n'), StandardCharsets.UTF_8);
+                ReferenceRegistry.getInstance().invalidate(file.toString());
+                IdIndex.invalidate(file.toString());
+                return 0;
+            }
+            return fileHandler.replaceCSV(file.toString(), entities);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Appends entities to the file, writing the header first if the file is new or empty.
+     * @param entities The entities.
+     * @return The number of rows written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long append(Collection<? extends T> entities) throws IOException {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            return fileHandler.appendCSV(file.toString(), entities);
+        } finally {
+            write.unlock();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Flight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Seat availability per flight that stays consistent under concurrent bookings without a global lock.
+ * <p>
+ * Each flight has a seat map: a bitset of taken seats and, for each taken seat, the hold that owns it.
+ * A seat is taken with a compare-and-set on its 64-seat word of the bitset, so a flight never hands out
+ * more seats than its capacity, and threads only retry when they race for the same word. Threads start
+ * their search at a random word to spread out. Seat maps are created on first use from the flight's
+ * capacity and the number of seats already booked.
+ * <p>
+ * A reservation is a {@link Hold} that expires unless it is confirmed. Once a flight is full, expired
+ * holds are handed to new reservations, so abandoned bookings do not keep seats forever.
+ */
+public final class SeatInventory {
+    public static final Duration DEFAULT_HOLD_TIME = Duration.ofMinutes(15);
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final Map<String, SeatMap> flights = new ConcurrentHashMap<>();
+    private final ToIntFunction<String> capacities;
+    private final ToIntFunction<String> bookedSeats;
+    private final Clock clock;
+
+    /**
+     * @param capacities Returns the capacity of a flight, or a negative number if the flight does not exist.
+     * @param bookedSeats Returns the number of seats of a flight that are already booked.
+     */
+    public SeatInventory(ToIntFunction<String> capacities, ToIntFunction<String> bookedSeats) {
+        this(capacities, bookedSeats, Clock.systemUTC());
+    }
+
+    /**
+     * @param capacities Returns the capacity of a flight, or a negative number if the flight does not exist.
+     * @param bookedSeats Returns the number of seats of a flight that are already booked.
+     * @param clock The clock holds expire by.
+     */
+    public SeatInventory(ToIntFunction<String> capacities, ToIntFunction<String> bookedSeats, Clock clock) {
+        this.capacities = Objects.requireNonNull(capacities, "capacities");
+        this.bookedSeats = Objects.requireNonNull(bookedSeats, "bookedSeats");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Builds an inventory from a flights file and a bookings file. Only the flight columns and the
+     * number of bookings per flight are kept, not the entities.
+     * @param flightsCsv The flights file.
+     * @param bookingsCsv The bookings file; it may not exist yet.
+     * @return The inventory.
+     * @throws IOException If a file cannot be read.
+     */
+    public static SeatInventory load(String flightsCsv, String bookingsCsv) throws IOException {
+        // Flights are held in columns; a map only takes those the store cannot encode
+        FlightStore capacities = new FlightStore();
+        Map<String, Integer> unencoded = new HashMap<>();
+        // Bookings are counted by the pool code of their flight ID; a map only takes IDs the pool did not
+        StringDictionary flightIds = CSVCodec.forClass(Booking.class).dictionary("flightId");
+        int[] booked = new int[flightIds.size()];
+        Map<String, Integer> unpooled = new HashMap<>();
+        try (Stream<Flight> flights = stream(flightsCsv, Flight.class);
+             Stream<Booking> bookings = stream(bookingsCsv, Booking.class)) {
+            flights.filter(flight -> flight.getId() != null && hasValidCapacity(flight))
+                    .filter(flight -> !capacities.add(flight))
+                    .forEach(flight -> unencoded.putIfAbsent(flight.getId(), flight.getCapacity()));
+            for (Iterator<Booking> it = bookings.iterator(); it.hasNext(); ) {
+                String flightId = it.next().getFlightId();
+                int code = flightIds.find(flightId);
+                if (code >= booked.length) {
+                    booked = Arrays.copyOf(booked, Math.max(code + 1, booked.length * 2));
+                }
+                if (code != StringDictionary.NO_CODE) {
+                    booked[code]++;
+                } else if (flightId != null) {
+                    unpooled.merge(flightId, 1, Integer::sum);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        capacities.trimToSize();
+        int[] counts = booked;
+        return new SeatInventory(id -> {
+            int row = UUIDs.isCanonicalLowerCase(id) ? capacities.indexOf(id) : -1;
+            return row >= 0 ? capacities.capacity(row) : unencoded.getOrDefault(id, -1);
+        }, id -> {
+            int code = flightIds.find(id);
+            return code >= 0 && code < counts.length ? counts[code] : unpooled.getOrDefault(id, 0);
+        });
+    }
+
+    // Stored rows are counted whatever their dates, since a booking is dated the day it was made
+    private static <T> Stream<T> stream(String csvPath, Class<T> type) throws IOException {
+        Path file = Path.of(csvPath);
+        if (!Files.exists(file)) {
+            return Stream.empty();
+        }
+        return CSVHandler.streamStored(new CSVRecordReader(Files.newBufferedReader(file)), type);
+    }
+
+    /**
+     * Checks a flight's capacity before seats are sized from it, since stored rows only have their format checked.
+     * @param flight The flight.
+     * @return true if the capacity is within bounds; otherwise the flight is reported and has no seats.
+     */
+    public static boolean hasValidCapacity(Flight flight) {
+        String error = Validator.validateCapacity(flight.getCapacity());
+        if (error != null) {
+            OutputSink.getInstance().reject(() -> "❌ Flight " + flight.getId() + " has no bookable seats: " + error);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Holds a free seat for {@link #DEFAULT_HOLD_TIME}.
+     * @param flightId The flight ID.
+     * @return The hold, or null if the flight does not exist or is full.
+     */
+    public Hold hold(String flightId) {
+        return hold(flightId, DEFAULT_HOLD_TIME);
+    }
+
+    /**
+     * Holds a free seat until it is confirmed or released, or the hold time passes.
+     * @param flightId The flight ID.
+     * @param holdTime How long the seat is held; must be positive.
+     * @return The hold, or null if the flight does not exist or is full.
+     */
+    public Hold hold(String flightId, Duration holdTime) {
+        if (holdTime.isNegative() || holdTime.isZero()) {
+            throw new IllegalArgumentException("Hold time must be positive: " + holdTime);
+        }
+        long now = clock.millis();
+        long expiresAt;
+        try {
+            expiresAt = Math.addExact(now, holdTime.toMillis());
+        } catch (ArithmeticException e) {
+            expiresAt = NEVER;
+        }
+        SeatMap seats = seats(flightId);
+        return seats != null ? seats.take(expiresAt, now) : null;
+    }
+
+    /**
+     * Takes a free seat for good, as a hold that is confirmed at once.
+     * @param flightId The flight ID.
+     * @return The confirmed hold, or null if the flight does not exist or is full.
+     */
+    public Hold book(String flightId) {
+        SeatMap seats = seats(flightId);
+        return seats != null ? seats.take(NEVER, clock.millis()) : null;
+    }
+
+    /**
+     * Confirms a hold, so the seat no longer expires. A hold that has already expired is released instead.
+     * @param hold The hold.
+     * @return The confirmed hold, or null if the hold expired or was released.
+     */
+    public Hold confirm(Hold hold) {
+        if (hold.isConfirmed()) {
+            return owns(hold) ? hold : null;
+        }
+        SeatMap seats = flights.get(hold.flightId);
+        if (seats == null) {
+            return null;
+        }
+        if (hold.expiresAt <= clock.millis()) {
+            seats.release(hold);
+            return null;
+        }
+        Hold confirmed = new Hold(hold.flightId, hold.seat, NEVER);
+        return seats.holders.compareAndSet(hold.seat, hold, confirmed) ? confirmed : null;
+    }
+
+    /**
+     * Gives a held or confirmed seat back.
+     * @param hold The hold.
+     * @return true if the seat was freed; false if the hold had already been released or taken over after expiring.
+     */
+    public boolean release(Hold hold) {
+        SeatMap seats = flights.get(hold.flightId);
+        return seats != null && seats.release(hold);
+    }
+
+    /**
+     * @param flightId The flight ID.
+     * @return The number of seats that are free or held past their expiry, or -1 if the flight does not exist.
+     */
+    public int available(String flightId) {
+        SeatMap seats = seats(flightId);
+        return seats != null ? seats.available(clock.millis()) : -1;
+    }
+
+    /**
+     * @param flightId The flight ID.
+     * @return The flight's capacity, or -1 if the flight does not exist.
+     */
+    public int capacity(String flightId) {
+        SeatMap seats = seats(flightId);
+        return seats != null ? seats.capacity : -1;
+    }
+
+    // Whether a hold still owns its seat
+    private boolean owns(Hold hold) {
+        SeatMap seats = flights.get(hold.flightId);
+        return seats != null && seats.holders.get(hold.seat) == hold;
+    }
+
+    // Returns the seat map of a flight, creating it on first use; null if the flight does not exist
+    private SeatMap seats(String flightId) {
+        if (flightId == null) {
+            return null;
+        }
+        SeatMap seats = flights.get(flightId);
+        if (seats != null) {
+            return seats;
+        }
+        return flights.computeIfAbsent(flightId, id -> {
+            int capacity = capacities.applyAsInt(id);
+            return capacity < 0 ? null : new SeatMap(id, capacity, bookedSeats.applyAsInt(id));
+        });
+    }
+
+    /**
+     * A seat taken on a flight, either held until an expiry time or confirmed.
+     * Holds are compared by identity: a seat handed to a new hold after expiring is no longer owned by the old one.
+     */
+    public static final class Hold {
+        private final String flightId;
+        private final int seat;
+        private final long expiresAt;
+
+        private Hold(String flightId, int seat, long expiresAt) {
+            this.flightId = flightId;
+            this.seat = seat;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getFlightId() { return flightId; }
+
+        /**
+         * @return The seat number, from 1 to the flight's capacity.
+         */
+        public int getSeat() { return seat + 1; }
+
+        public boolean isConfirmed() { return expiresAt == NEVER; }
+
+        /**
+         * @return When the hold expires, or null if it is confirmed.
+         */
+        public Instant getExpiresAt() {
+            return isConfirmed() ? null : Instant.ofEpochMilli(expiresAt);
+        }
+
+        @Override
+        public String toString() {
+            return "Hold{flightId=" + flightId + ", seat=" + getSeat()
+                    + (isConfirmed() ? ", confirmed" : ", expiresAt=" + getExpiresAt()) + "}";
+        }
+    }
+
+    // The seats of one flight. A set bit with a null holder is a seat booked before the map was created,
+    // or one whose holder is being set or cleared; neither can be taken over.
+    private static final class SeatMap {
+        final String flightId;
+        final int capacity;
+        final AtomicLongArray taken;
+        final AtomicReferenceArray<Hold> holders;
+
+        SeatMap(String flightId, int capacity, int booked) {
+            this.flightId = flightId;
+            this.capacity = Math.max(capacity, 0);
+            this.taken = new AtomicLongArray((this.capacity + 63) >>> 6);
+            this.holders = new AtomicReferenceArray<>(this.capacity);
+            int seats = Math.min(Math.max(booked, 0), this.capacity);
+            for (int word = 0; word < seats >>> 6; word++) {
+                taken.set(word, -1L);
+            }
+            if ((seats & 63) != 0) {
+                taken.set(seats >>> 6, (1L << seats) - 1);
+            }
+        }
+
+        Hold take(long expiresAt, long now) {
+            int words = taken.length();
+            if (words == 0) {
+                return null;
+            }
+            int start = ThreadLocalRandom.current().nextInt(words);
+            for (int i = 0; i < words; i++) {
+                int word = start + i < words ? start + i : start + i - words;
+                long valid = word == words - 1 && (capacity & 63) != 0 ? (1L << capacity) - 1 : -1L;
+                long bits = taken.get(word);
+                long free;
+                while ((free = ~bits & valid) != 0) {
+                    long bit = Long.lowestOneBit(free);
+                    long witness = taken.compareAndExchange(word, bits, bits | bit);
+                    if (witness == bits) {
+                        Hold hold = new Hold(flightId, (word << 6) + Long.numberOfTrailingZeros(bit), expiresAt);
+                        holders.set(hold.seat, hold);
+                        return hold;
+                    }
+                    bits = witness;
+                }
+            }
+            return takeExpired(expiresAt, now);
+        }
+
+        // Hands a seat whose hold has expired to a new hold; the bit stays set throughout
+        private Hold takeExpired(long expiresAt, long now) {
+            for (int seat = 0; seat < capacity; seat++) {
+                Hold current = holders.get(seat);
+                if (current != null && current.expiresAt <= now) {
+                    Hold hold = new Hold(flightId, seat, expiresAt);
+                    if (holders.compareAndSet(seat, current, hold)) {
+                        return hold;
+                    }
+                }
+            }
+            return null;
+        }
+
+        boolean release(Hold hold) {
+            if (hold.seat >= capacity || !holders.compareAndSet(hold.seat, hold, null)) {
+                return false;
+            }
+            int word = hold.seat >>> 6;
+            long bit = 1L << hold.seat;
+            long bits = taken.get(word);
+            long witness;
+            while ((witness = taken.compareAndExchange(word, bits, bits & ~bit)) != bits) {
+                bits = witness;
+            }
+            return true;
+        }
+
+        int available(long now) {
+            int used = 0;
+            for (int word = 0; word < taken.length(); word++) {
+                used += Long.bitCount(taken.get(word));
+            }
+            int expired = 0;
+            for (int seat = 0; seat < capacity; seat++) {
+                Hold hold = holders.get(seat);
+                if (hold != null && hold.expiresAt <= now) {
+                    expired++;
+                }
+            }
+            return capacity - used + expired;
+        }
+    }
+}
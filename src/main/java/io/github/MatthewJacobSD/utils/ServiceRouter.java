@@ -36,7 +36,12 @@ public class ServiceRouter {
             case 2 -> sBooking.data();
             case 3 -> sFlight.data();
             case 4 -> sRoute.data();
-            default -> System.out.println("❌ Invalid choice! Please try again.");
+            default -> OutputSink.getInstance().println("❌ Invalid choice! Please try again.");
         }
     }
+
+    // Flushes pending writes before exit
+    public void shutdown() {
+        sBooking.closeJournal();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,441 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Binary columnar copy of a CSV file, saved next to it as {@code <file>.snap}.
+ * <p>
+ * Each field becomes one column: UUID strings as pairs of longs, date-times as epoch minutes,
+ * dates as epoch days, ints as they are and any other string as a dictionary plus an int code per row, so
+ * repeated values such as airport codes are stored once. The snapshot is stamped with the
+ * CSV's size and modification time and is rebuilt from the CSV whenever they no longer match.
+ * Loading reads the columns with bulk NIO transfers instead of parsing text.
+ * Snapshots are optional and off by default, see {@link #setEnabled(boolean)}.
+ *
+ * @param <T> The model type.
+ */
+public final class Snapshot<T> {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private static volatile boolean enabled;
+
+    private final CSVCodec<T> codec;
+    private final int rows;
+    private final Column[] columns;
+
+    private Snapshot(CSVCodec<T> codec, int rows, Column[] columns) {
+        this.codec = codec;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Snapshot.enabled = enabled;
+    }
+
+    /**
+     * Opens the snapshot of a CSV file, rebuilding it first if it is missing or older than the CSV.
+     * @param csvPath The CSV file path.
+     * @param type The model class stored in the file.
+     * @return The snapshot, or null if snapshots are disabled or the CSV file does not exist.
+     * @throws IOException If the snapshot cannot be read or rebuilt.
+     */
+    public static <T> Snapshot<T> open(String csvPath, Class<T> type) throws IOException {
+        Path csv = Path.of(csvPath);
+        if (!enabled || !Files.exists(csv)) {
+            return null;
+        }
+        Path file = snapshotPath(csv);
+        FileStamp stamp = FileStamp.of(csv);
+        CSVCodec<T> codec = CSVCodec.forClass(type);
+        if (Files.exists(file)) {
+            Snapshot<T> snapshot = read(file, codec, stamp);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        Snapshot<T> snapshot = build(csv, codec);
+        snapshot.write(file, stamp);
+        return snapshot;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Creates the entities stored in the snapshot. Field-level validation already happened
+     * when the snapshot was built; entity-level checks are left to the caller.
+     * @return The entities in file order.
+     */
+    public List<T> materialize() {
+        List<T> objects = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            T obj = codec.newInstance();
+            for (int c = 0; c < columns.length; c++) {
+                codec.set(obj, c, columns[c].value(row));
+            }
+            objects.add(obj);
+        }
+        return objects;
+    }
+
+    /**
+     * Adds every non-null value of a UUID column to a set without creating entities.
+     * @param column The field name, e.g. "id".
+     * @param target The set to fill.
+     */
+    public void collectUuids(String column, UuidHashSet target) {
+        int index = codec.fieldNames().indexOf(column);
+        if (index < 0) {
+            return;
+        }
+        Column col = columns[index];
+        for (int row = 0; row < rows; row++) {
+            if (col.kind == Kind.UUID) {
+                if (!col.isNull(row)) {
+                    target.add(col.longs[2 * row], col.longs[2 * row + 1]);
+                }
+            } else {
+                Object value = col.value(row);
+                if (value != null) {
+                    target.add(value.toString());
+                }
+            }
+        }
+    }
+
+    // Parses the CSV once, appending each row straight into the column builders
+    private static <T> Snapshot<T> build(Path csv, CSVCodec<T> codec) throws IOException {
+        Column[] columns = new Column[codec.columnCount()];
+        for (int c = 0; c < columns.length; c++) {
+            Class<?> fieldType = codec.fieldType(c);
+            Kind kind;
+            if (fieldType == String.class) {
+                kind = Kind.UUID;
+            } else if (fieldType == LocalDateTime.class) {
+                kind = Kind.MINUTES;
+            } else if (fieldType == LocalDate.class) {
+                kind = Kind.DAYS;
+            } else if (fieldType == int.class) {
+                kind = Kind.INT;
+            } else {
+                throw new IllegalArgumentException("Unsupported snapshot column type: " + fieldType.getSimpleName());
+            }
+            columns[c] = new Column(kind, 1024);
+        }
+
+        int[] rows = {0};
+        try (CSVRecordReader records = Files.size(csv) >= FileHandler.MAPPED_READ_THRESHOLD
+                ? MappedRecordReader.open(csv, null)
+                : new CSVRecordReader(Files.newBufferedReader(csv));
+             Stream<T> objects = CSVHandler.stream(records, codec.type(), null)) {
+            objects.forEach(obj -> {
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c].add(rows[0], codec.get(obj, c));
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Column column : columns) {
+            column.trim(rows[0]);
+        }
+        return new Snapshot<>(codec, rows[0], columns);
+    }
+
+    private void write(Path file, FileStamp stamp) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelOutput out = new ChannelOutput(channel);
+            out.putInt(MAGIC).putInt(VERSION).putLong(stamp.size()).putLong(stamp.modified());
+            out.putString(codec.type().getName()).putInt(rows).putInt(columns.length);
+            for (int c = 0; c < columns.length; c++) {
+                Column column = columns[c];
+                out.putString(codec.fieldNames().get(c)).putInt(column.kind.ordinal());
+                switch (column.kind) {
+                    case UUID -> out.putLongs(column.longs, 2 * rows).putLongs(column.nulls, column.nulls.length);
+                    case MINUTES, DAYS, INT -> out.putInts(column.ints, rows);
+                    case DICTIONARY -> {
+                        out.putInt(column.dictionary.size());
+                        for (String value : column.dictionary) {
+                            out.putString(value);
+                        }
+                        out.putInts(column.ints, rows);
+                    }
+                }
+            }
+            out.flush();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns null if the file is not a current snapshot of the CSV for this type
+    private static <T> Snapshot<T> read(Path file, CSVCodec<T> codec, FileStamp stamp) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION
+                    || in.getLong() != stamp.size() || in.getLong() != stamp.modified()
+                    || !getString(in).equals(codec.type().getName())) {
+                return null;
+            }
+            int rows = in.getInt();
+            int columnCount = in.getInt();
+            if (columnCount != codec.columnCount()) {
+                return null;
+            }
+
+            Column[] columns = new Column[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                if (!getString(in).equals(codec.fieldNames().get(c))) {
+                    return null;
+                }
+                Column column = new Column(Kind.values()[in.getInt()], 0);
+                switch (column.kind) {
+                    case UUID -> {
+                        column.longs = getLongs(in, 2 * rows);
+                        column.nulls = getLongs(in, (rows + 63) >>> 6);
+                    }
+                    case MINUTES, DAYS, INT -> column.ints = getInts(in, rows);
+                    case DICTIONARY -> {
+                        int size = in.getInt();
+                        for (int i = 0; i < size; i++) {
+                            column.dictionary.add(getString(in));
+                        }
+                        column.ints = getInts(in, rows);
+                    }
+                }
+                columns[c] = column;
+            }
+            return new Snapshot<>(codec, rows, columns);
+        } catch (RuntimeException e) {
+            // Truncated or corrupt snapshot; it will be rebuilt
+            return null;
+        }
+    }
+
+    private static long[] getLongs(ByteBuffer in, int count) {
+        long[] values = new long[count];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + count * Long.BYTES);
+        return values;
+    }
+
+    private static int[] getInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Path snapshotPath(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".snap");
+    }
+
+    private enum Kind { UUID, MINUTES, DAYS, DICTIONARY, INT }
+
+    private static final class Column {
+        Kind kind;
+        long[] longs;
+        long[] nulls;
+        int[] ints;
+        List<String> dictionary = new ArrayList<>();
+        Map<String, Integer> codes;
+
+        Column(Kind kind, int capacity) {
+            this.kind = kind;
+            if (capacity == 0) {
+                return;
+            }
+            if (kind == Kind.UUID) {
+                longs = new long[2 * capacity];
+                nulls = new long[(capacity + 63) >>> 6];
+            } else {
+                ints = new int[capacity];
+            }
+        }
+
+        boolean isNull(int row) {
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        void add(int row, Object value) {
+            switch (kind) {
+                case UUID -> {
+                    String text = (String) value;
+                    if (text != null && !UUIDs.isCanonical(text)) {
+                        toDictionary(row);
+                        add(row, value);
+                        return;
+                    }
+                    if (2 * row + 2 > longs.length) {
+                        longs = Arrays.copyOf(longs, longs.length * 2);
+                        nulls = Arrays.copyOf(nulls, (longs.length / 2 + 63) >>> 6);
+                    }
+                    if (text == null) {
+                        nulls[row >>> 6] |= 1L << row;
+                    } else {
+                        longs[2 * row] = UUIDs.mostSignificantBits(text);
+                        longs[2 * row + 1] = UUIDs.leastSignificantBits(text);
+                    }
+                }
+                case MINUTES -> growInts(row)[row] = value == null ? NULL_INT
+                        : (int) (((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC) / 60);
+                case DAYS -> growInts(row)[row] = value == null ? NULL_INT
+                        : (int) ((LocalDate) value).toEpochDay();
+                case DICTIONARY -> growInts(row)[row] = value == null ? -1
+                        : codes.computeIfAbsent((String) value, v -> {
+                            dictionary.add(v);
+                            return dictionary.size() - 1;
+                        });
+                case INT -> growInts(row)[row] = (Integer) value;
+            }
+        }
+
+        Object value(int row) {
+            return switch (kind) {
+                case UUID -> isNull(row) ? null : new UUID(longs[2 * row], longs[2 * row + 1]).toString();
+                case MINUTES -> ints[row] == NULL_INT ? null
+                        : LocalDateTime.ofEpochSecond(ints[row] * 60L, 0, ZoneOffset.UTC);
+                case DAYS -> ints[row] == NULL_INT ? null : LocalDate.ofEpochDay(ints[row]);
+                case DICTIONARY -> ints[row] < 0 ? null : dictionary.get(ints[row]);
+                case INT -> ints[row];
+            };
+        }
+
+        // Re-encodes a column that turned out not to hold only UUIDs
+        private void toDictionary(int rows) {
+            long[] uuids = longs;
+            long[] nullBits = nulls;
+            kind = Kind.DICTIONARY;
+            codes = new HashMap<>();
+            ints = new int[Math.max(16, uuids.length / 2)];
+            longs = null;
+            nulls = null;
+            for (int row = 0; row < rows; row++) {
+                boolean isNull = (nullBits[row >>> 6] & (1L << row)) != 0;
+                add(row, isNull ? null : new UUID(uuids[2 * row], uuids[2 * row + 1]).toString());
+            }
+        }
+
+        private int[] growInts(int row) {
+            if (row >= ints.length) {
+                ints = Arrays.copyOf(ints, Math.max(16, ints.length * 2));
+            }
+            return ints;
+        }
+
+        void trim(int rows) {
+            if (kind == Kind.UUID) {
+                longs = Arrays.copyOf(longs, 2 * rows);
+                nulls = Arrays.copyOf(nulls, (rows + 63) >>> 6);
+            } else {
+                ints = Arrays.copyOf(ints, rows);
+            }
+            codes = null;
+        }
+    }
+
+    // Buffers primitives into a direct buffer and writes it to the channel in large blocks
+    private static final class ChannelOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+        ChannelOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ChannelOutput putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            return this;
+        }
+
+        ChannelOutput putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            return this;
+        }
+
+        ChannelOutput putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+            return this;
+        }
+
+        ChannelOutput putLongs(long[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ensure(Long.BYTES);
+                int length = Math.min(buffer.remaining() / Long.BYTES, count - offset);
+                buffer.asLongBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Long.BYTES);
+                offset += length;
+            }
+            return this;
+        }
+
+        ChannelOutput putInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ensure(Integer.BYTES);
+                int length = Math.min(buffer.remaining() / Integer.BYTES, count - offset);
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+            return this;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide pool of repeated strings, such as airport codes or the flight ID of a booking,
+ * that gives each distinct value one shared instance and a dense integer code.
+ * <p>
+ * Parsed rows share the pooled instance, so a value repeated across millions of rows is stored
+ * once, and its hash code is computed once. Codes start at 0 and are never reused, so they can
+ * index arrays when grouping, and two values are equal exactly when their codes are. Lookups
+ * are lock-free; only new values take a lock. A pool stops growing at {@link #MAX_SIZE} values;
+ * later values are passed through unpooled and have no code.
+ */
+public final class StringDictionary {
+    public static final int MAX_SIZE = 1 << 20;
+    public static final int NO_CODE = -1;
+
+    private static final Map<String, StringDictionary> DICTIONARIES = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Written under the lock and published by the volatile write
+    private volatile String[] values = new String[64];
+    private int size;
+
+    private record Entry(String value, int code) { }
+
+    private StringDictionary(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the shared pool with a name, creating it on first use.
+     * @param name The pool name, e.g. {@code airport}.
+     * @return The pool.
+     */
+    public static StringDictionary forName(String name) {
+        return DICTIONARIES.computeIfAbsent(name, StringDictionary::new);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of pooled values, which is also the next code.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the pooled instance of a value, adding it if it is new.
+     * @param value The value.
+     * @return An equal string shared by every caller; the value itself if it is new, null, or the pool is full.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        Entry entry = lookup(value);
+        return entry != null ? entry.value : value;
+    }
+
+    /**
+     * Returns the code of a value, adding it if it is new.
+     * @param value The value.
+     * @return The code, or {@link #NO_CODE} if the value is null or the pool is full.
+     */
+    public int code(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Entry entry = lookup(value);
+        return entry != null ? entry.code : NO_CODE;
+    }
+
+    /**
+     * Looks up the code of a value without adding it, e.g. for a query.
+     * @param value The value.
+     * @return The code, or {@link #NO_CODE} if the value is not pooled.
+     */
+    public int find(String value) {
+        Entry entry = value != null ? entries.get(value) : null;
+        return entry != null ? entry.code : NO_CODE;
+    }
+
+    /**
+     * @param code A code returned by {@link #code(String)}.
+     * @return The value with that code, or null if there is none.
+     */
+    public String value(int code) {
+        String[] current = values;
+        return code >= 0 && code < current.length ? current[code] : null;
+    }
+
+    private Entry lookup(String value) {
+        Entry entry = entries.get(value);
+        return entry != null ? entry : add(value);
+    }
+
+    private synchronized Entry add(String value) {
+        Entry entry = entries.get(value);
+        if (entry != null) {
+            return entry;
+        }
+        if (size >= MAX_SIZE) {
+            return null;
+        }
+        int code = size++;
+        String[] current = values;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = value;
+        values = current;
+        entry = new Entry(value, code);
+        entries.put(value, entry);
+        return entry;
+    }
+
+    @Override
+    public String toString() {
+        return "StringDictionary[" + name + ", " + size() + " values]";
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Allocation-free helpers for UUID strings in the canonical 8-4-4-4-12 hex layout.
+ */
+public final class UUIDs {
+    private static final int LENGTH = 36;
+    // Digit values of '0'-'9', 'a'-'f' and 'A'-'F', -1 for other ASCII characters; a lookup
+    // instead of range checks, whose branches mispredict on random hex digits
+    private static final byte[] HEX_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int digit = 0; digit < 16; digit++) {
+            HEX_DIGITS[Character.forDigit(digit, 16)] = (byte) digit;
+            HEX_DIGITS[Character.toUpperCase(Character.forDigit(digit, 16))] = (byte) digit;
+        }
+    }
+
+    private UUIDs() {}
+
+    /**
+     * Checks whether {@link UUID#fromString(String)} would accept a value, without throwing or allocating:
+     * either the canonical layout or, at most 36 characters long, five dash-separated groups that
+     * {@link Long#parseLong(CharSequence, int, int, int)} accepts in radix 16.
+     * @param value The candidate string.
+     * @return true if the value is a parsable UUID.
+     */
+    public static boolean isValid(CharSequence value) {
+        if (isCanonical(value)) {
+            return true;
+        }
+        if (value == null || value.length() > LENGTH) {
+            return false;
+        }
+        int start = 0;
+        for (int group = 0; group < 5; group++) {
+            int end = group < 4 ? indexOfDash(value, start) : value.length();
+            if (end < 0 || !isHexLong(value, start, end)) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static int indexOfDash(CharSequence value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            if (value.charAt(i) == '-') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Mirrors Long.parseLong in radix 16: optional '+', at least one digit, no overflow
+    private static boolean isHexLong(CharSequence value, int from, int to) {
+        if (from < to && value.charAt(from) == '+') {
+            from++;
+        }
+        if (from >= to) {
+            return false;
+        }
+        int significant = 0;
+        int first = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return false;
+            }
+            if (significant == 0) {
+                first = digit;
+            }
+            if (significant > 0 || digit != 0) {
+                significant++;
+            }
+        }
+        return significant < 16 || (significant == 16 && first < 8);
+    }
+
+    /**
+     * Checks the canonical layout without throwing or allocating.
+     * @param value The candidate string.
+     * @return true if the value is 36 hex digits and dashes in the 8-4-4-4-12 layout.
+     */
+    public static boolean isCanonical(CharSequence value) {
+        if (value == null || value.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hex(c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks for the form {@link UUID#toString()} produces, so the value can be stored as two longs
+     * and rebuilt unchanged.
+     * @param value The candidate string.
+     * @return true if the value is canonical and has no upper-case hex digits.
+     */
+    public static boolean isCanonicalLowerCase(CharSequence value) {
+        if (value == null || value.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hex(c) < 0 || c <= 'F' && c >= 'A') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value A canonical UUID string, see {@link #isCanonical(CharSequence)}.
+     * @return The most significant 64 bits.
+     */
+    public static long mostSignificantBits(CharSequence value) {
+        return bits(value, 0, 18);
+    }
+
+    /**
+     * @param value A canonical UUID string, see {@link #isCanonical(CharSequence)}.
+     * @return The least significant 64 bits.
+     */
+    public static long leastSignificantBits(CharSequence value) {
+        return bits(value, 19, LENGTH);
+    }
+
+    /**
+     * Parses any string {@link UUID#fromString(String)} accepts, using the fast path when it is canonical.
+     * @param value The UUID string.
+     * @return The UUID, or null if the value is not a UUID.
+     */
+    public static UUID parse(String value) {
+        if (isCanonical(value)) {
+            return new UUID(mostSignificantBits(value), leastSignificantBits(value));
+        }
+        if (!isValid(value)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long bits(CharSequence value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c != '-') {
+                result = (result << 4) | hex(c);
+            }
+        }
+        return result;
+    }
+
+    private static int hex(char c) {
+        return c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+    }
+}
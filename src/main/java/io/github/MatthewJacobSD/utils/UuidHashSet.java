@@ -0,0 +1,172 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.util.UUID;
+
+/**
+ * Open-addressing hash set of UUIDs stored as pairs of primitive longs.
+ * <p>
+ * Each entry costs 16 bytes of table space (about 21 bytes at the maximum load factor), compared
+ * with well over 100 bytes for a 36-char String in a {@code HashSet}. Lookups use linear probing
+ * and never allocate. An optional {@link BloomFilter} in front answers most misses without
+ * touching the table. Not thread-safe for writes; build it fully before sharing it.
+ */
+public final class UuidHashSet {
+    private static final float MAX_LOAD = 0.75f;
+
+    // keys[2 * slot] = most significant bits, keys[2 * slot + 1] = least significant bits
+    private long[] keys;
+    private int mask;
+    private int size;
+    // (0, 0) marks an empty slot, so the nil UUID is tracked separately
+    private boolean containsNil;
+    private BloomFilter bloomFilter;
+
+    public UuidHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize The number of UUIDs the set should hold without resizing.
+     */
+    public UuidHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / MAX_LOAD)) - 1) << 1;
+        this.keys = new long[capacity * 2];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Puts a Bloom filter in front of the table, sized for the current contents.
+     * Later additions are also recorded in the filter.
+     * @param falsePositiveRate The target false-positive rate, e.g. 0.01.
+     * @return This set.
+     */
+    public UuidHashSet withBloomFilter(double falsePositiveRate) {
+        BloomFilter filter = new BloomFilter(Math.max(size, 1), falsePositiveRate);
+        for (int slot = 0; slot <= mask; slot++) {
+            long msb = keys[2 * slot];
+            long lsb = keys[2 * slot + 1];
+            if (msb != 0 || lsb != 0) {
+                filter.add(msb, lsb);
+            }
+        }
+        if (containsNil) {
+            filter.add(0, 0);
+        }
+        this.bloomFilter = filter;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param uuid A UUID string.
+     * @return true if the value was added, false if it was already present or is not a UUID.
+     */
+    public boolean add(String uuid) {
+        if (UUIDs.isCanonical(uuid)) {
+            return add(UUIDs.mostSignificantBits(uuid), UUIDs.leastSignificantBits(uuid));
+        }
+        UUID parsed = UUIDs.parse(uuid);
+        return parsed != null && add(parsed.getMostSignificantBits(), parsed.getLeastSignificantBits());
+    }
+
+    public boolean add(long msb, long lsb) {
+        if (bloomFilter != null) {
+            bloomFilter.add(msb, lsb);
+        }
+        if (msb == 0 && lsb == 0) {
+            if (containsNil) {
+                return false;
+            }
+            containsNil = true;
+            size++;
+            return true;
+        }
+
+        int slot = indexOf(msb, lsb);
+        if (slot >= 0) {
+            return false;
+        }
+        slot = -slot - 1;
+        keys[2 * slot] = msb;
+        keys[2 * slot + 1] = lsb;
+        if (++size > (mask + 1) * MAX_LOAD) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * @param uuid A UUID string.
+     * @return true if the set contains it; false for null or non-UUID input.
+     */
+    public boolean contains(String uuid) {
+        if (UUIDs.isCanonical(uuid)) {
+            return contains(UUIDs.mostSignificantBits(uuid), UUIDs.leastSignificantBits(uuid));
+        }
+        UUID parsed = UUIDs.parse(uuid);
+        return parsed != null && contains(parsed.getMostSignificantBits(), parsed.getLeastSignificantBits());
+    }
+
+    public boolean contains(long msb, long lsb) {
+        if (bloomFilter != null && !bloomFilter.mightContain(msb, lsb)) {
+            return false;
+        }
+        if (msb == 0 && lsb == 0) {
+            return containsNil;
+        }
+        return indexOf(msb, lsb) >= 0;
+    }
+
+    /**
+     * @return The approximate heap footprint of the table and filter in bytes.
+     */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES + (bloomFilter != null ? bloomFilter.memoryBytes() : 0);
+    }
+
+    // Returns the slot holding the key, or -(empty slot) - 1 where it would be inserted
+    private int indexOf(long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        while (true) {
+            long slotMsb = keys[2 * slot];
+            long slotLsb = keys[2 * slot + 1];
+            if (slotMsb == msb && slotLsb == lsb) {
+                return slot;
+            }
+            if (slotMsb == 0 && slotLsb == 0) {
+                return -slot - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = (keys.length / 2) - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            long msb = old[i];
+            long lsb = old[i + 1];
+            if (msb != 0 || lsb != 0) {
+                int slot = -indexOf(msb, lsb) - 1;
+                keys[2 * slot] = msb;
+                keys[2 * slot + 1] = lsb;
+            }
+        }
+    }
+
+    static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.MatthewJacobSD.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The moment that date and date-time fields are validated against.
+ * <p>
+ * The clock is read once, when the context is sampled. A batch validated against one context
+ * therefore sees a single consistent "now" and does no clock reads or time zone lookups per row.
+ * Take a context with {@link #sample()} at the start of a batch and pass it down; {@link #current()}
+ * serves one-off checks. The clock can be replaced with {@link #setClock(Clock)}, e.g. to validate
+ * against a fixed date.
+ */
+public final class ValidationContext {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+    private static volatile ValidationContext current;
+
+    private final Clock source;
+    private final long refreshAtMillis;
+    private final long today;
+    private final long maxDay;
+    // Local wall-clock times as milliseconds since 1970-01-01T00:00, so no offset is applied per check
+    private final long nowLocalMillis;
+    private final long maxLocalMillis;
+
+    private ValidationContext(Clock source) {
+        Instant instant = source.instant();
+        LocalDateTime now = LocalDateTime.ofInstant(instant, source.getZone());
+        LocalDateTime max = now.plusYears(1);
+        this.source = source;
+        this.refreshAtMillis = (Math.floorDiv(instant.toEpochMilli(), MILLIS_PER_MINUTE) + 1) * MILLIS_PER_MINUTE;
+        this.today = now.toLocalDate().toEpochDay();
+        this.maxDay = max.toLocalDate().toEpochDay();
+        this.nowLocalMillis = localMillis(now);
+        this.maxLocalMillis = localMillis(max);
+    }
+
+    /**
+     * Samples the configured clock.
+     * @return A context fixed at the current time.
+     */
+    public static ValidationContext sample() {
+        return sample(clock);
+    }
+
+    /**
+     * Samples the given clock.
+     * @param clock The clock, whose zone defines the local date and time.
+     * @return A context fixed at the clock's current time.
+     */
+    public static ValidationContext sample(Clock clock) {
+        return new ValidationContext(Objects.requireNonNull(clock, "clock"));
+    }
+
+    /**
+     * Returns a shared context for the configured clock, sampled again at most once per minute.
+     * Values have minute precision, so a check gives the same result anywhere within the minute.
+     * @return The current context.
+     */
+    public static ValidationContext current() {
+        Clock source = clock;
+        ValidationContext context = current;
+        if (context == null || context.source != source || source.millis() >= context.refreshAtMillis) {
+            context = new ValidationContext(source);
+            current = context;
+        }
+        return context;
+    }
+
+    /**
+     * Replaces the clock used by {@link #sample()} and {@link #current()}.
+     * @param clock The new clock, e.g. {@link Clock#fixed} in tests.
+     */
+    public static void setClock(Clock clock) {
+        ValidationContext.clock = Objects.requireNonNull(clock, "clock");
+        current = null;
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Checks that a date is between today and one year from today.
+     * @param date The date.
+     * @return The error, or null if the date is in range.
+     */
+    public ValidationError checkDate(LocalDate date) {
+        return date == null ? ValidationError.EMPTY : checkEpochDay(date.toEpochDay());
+    }
+
+    /**
+     * Checks that a date-time is between now and one year from now.
+     * @param dateTime The local date-time.
+     * @return The error, or null if the date-time is in range.
+     */
+    public ValidationError checkDateTime(LocalDateTime dateTime) {
+        return dateTime == null ? ValidationError.EMPTY : checkLocalMillis(localMillis(dateTime));
+    }
+
+    ValidationError checkEpochDay(long epochDay) {
+        if (epochDay < today) {
+            return ValidationError.DATE_IN_PAST;
+        }
+        if (epochDay > maxDay) {
+            return ValidationError.DATE_TOO_FAR;
+        }
+        return null;
+    }
+
+    ValidationError checkLocalMillis(long localMillis) {
+        if (localMillis < nowLocalMillis) {
+            return ValidationError.DATETIME_IN_PAST;
+        }
+        if (localMillis > maxLocalMillis) {
+            return ValidationError.DATETIME_TOO_FAR;
+        }
+        return null;
+    }
+
+    private static long localMillis(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MILLIS_PER_DAY + dateTime.toLocalTime().toNanoOfDay() / 1_000_000;
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Flight;
+
+/**
+ * Preallocated result codes of the {@code Validator.check*} methods.
+ * <p>
+ * A check returns one of these constants, or null when the value is valid, so rejecting a value
+ * costs no allocation. The user-facing text is only built when {@link #message(String)} is called.
+ */
+public enum ValidationError {
+    EMPTY,
+    INVALID_EMAIL,
+    INVALID_PHONE,
+    INVALID_UUID,
+    INVALID_DATE_FORMAT,
+    DATE_IN_PAST,
+    DATE_TOO_FAR,
+    INVALID_DATETIME_FORMAT,
+    DATETIME_IN_PAST,
+    DATETIME_TOO_FAR,
+    INVALID_FLIGHT_NUMBER,
+    INVALID_AIRPORT_CODE,
+    INVALID_ROUTE_NAME,
+    INVALID_NUMBER,
+    INVALID_CAPACITY;
+
+    /**
+     * Builds the user-facing message for this error.
+     * @param fieldName The field name used in the message, e.g. "Departure time".
+     * @return The message.
+     */
+    public String message(String fieldName) {
+        return switch (this) {
+            case EMPTY -> fieldName + " cannot be empty.";
+            case INVALID_EMAIL -> "Invalid email format (e.g., user@domain.com).";
+            case INVALID_PHONE -> "Phone number must be 7-15 digits.";
+            case INVALID_UUID -> "Invalid UUID format.";
+            case INVALID_DATE_FORMAT ->
+                    "Invalid " + fieldName.toLowerCase() + " format. Use yyyy-MM-dd (e.g., 2025-12-31).";
+            case DATE_IN_PAST -> fieldName + " must be today or in the future.";
+            case DATE_TOO_FAR, DATETIME_TOO_FAR -> fieldName + " cannot be more than one year in the future.";
+            case INVALID_DATETIME_FORMAT ->
+                    "Invalid " + fieldName.toLowerCase() + " format. Use yyyy-MM-dd HH:mm (e.g., 2025-05-04 14:30).";
+            case DATETIME_IN_PAST -> fieldName + " must be now or in the future.";
+            case INVALID_FLIGHT_NUMBER -> "Flight number must be 2-6 alphanumeric characters (e.g., AA123).";
+            case INVALID_AIRPORT_CODE -> fieldName + " must be a 3-letter uppercase code (e.g., JFK).";
+            case INVALID_ROUTE_NAME -> "Route name must be in format XXX-YYY (e.g., JFK-LAX).";
+            case INVALID_NUMBER -> fieldName + " must be a whole number.";
+            case INVALID_CAPACITY -> fieldName + " must be between 1 and " + Flight.MAX_CAPACITY + " seats.";
+        };
+    }
+}
@@ -1,108 +1,342 @@
 package io.github.MatthewJacobSD.utils;
 
+import io.github.MatthewJacobSD.models.Flight;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.regex.Pattern;
 
+/**
+ * Field validation.
+ * <p>
+ * The {@code check*} methods are the fast path: they scan characters directly instead of using
+ * regular expressions, {@code UUID.fromString} or {@code DateTimeFormatter}, never throw, and
+ * return a preallocated {@link ValidationError} or null, so valid input allocates nothing. The
+ * {@code validate*} methods wrap them and turn an error into its message. They accept exactly
+ * what the former regex and formatter based checks accepted. Dates are checked against a
+ * {@link ValidationContext}; the overloads for {@code LocalDate} and {@code LocalDateTime} check
+ * values that were already parsed.
+ */
 public class Validator {
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     public static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\d{7,15}$");
-    private static final Pattern FLIGHT_NUMBER_PATTERN = Pattern.compile("^[A-Za-z0-9]{2,6}$");
-    private static final Pattern AIRPORT_CODE_PATTERN = Pattern.compile("^[A-Z]{3}$");
-    private static final Pattern ROUTE_NAME_PATTERN = Pattern.compile("^[A-Z]{3}-[A-Z]{3}$");
+
+    // Bit sets over ASCII: bit c of LO (c < 64) or of HI (c - 64)
+    private static final long DIGITS_LO = 0x03FF_0000_0000_0000L;
+    private static final long UPPER_HI = 0x0000_0000_07FF_FFFEL;
+    private static final long LOWER_HI = 0x07FF_FFFE_0000_0000L;
+    private static final long ALNUM_LO = DIGITS_LO;
+    private static final long ALNUM_HI = UPPER_HI | LOWER_HI;
+    // [A-Za-z0-9+_.-] for the local part and [A-Za-z0-9.-] for the domain
+    private static final long EMAIL_LOCAL_LO = DIGITS_LO | 1L << '+' | 1L << '.' | 1L << '-';
+    private static final long EMAIL_LOCAL_HI = ALNUM_HI | 1L << ('_' - 64);
+    private static final long EMAIL_DOMAIN_LO = DIGITS_LO | 1L << '.' | 1L << '-';
+    private static final long EMAIL_DOMAIN_HI = ALNUM_HI;
+
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
 
     public static String validateNonEmpty(String value, String fieldName) {
-        if (value == null || value.trim().isEmpty()) {
-            return fieldName + " cannot be empty.";
-        }
-        return null;
+        return message(checkNonEmpty(value), fieldName);
     }
 
     public static String validateEmail(String email) {
-        if (email == null || !EMAIL_PATTERN.matcher(email).matches()) {
-            return "Invalid email format (e.g., user@domain.com).";
-        }
-        return null;
+        return message(checkEmail(email), "Email");
     }
 
     public static String validatePhone(String phoneNo) {
-        if (phoneNo == null || !PHONE_PATTERN.matcher(phoneNo).matches()) {
-            return "Phone number must be 7-15 digits.";
-        }
-        return null;
+        return message(checkPhone(phoneNo), "Phone number");
     }
 
     public static String validateUUID(String uuid) {
-        try {
-            java.util.UUID.fromString(uuid);
-            return null;
-        } catch (IllegalArgumentException e) {
-            return "Invalid UUID format.";
-        }
+        return message(checkUUID(uuid), "UUID");
     }
 
     public static String validateDate(String dateStr, String fieldName) {
-        if (dateStr == null || dateStr.trim().isEmpty()) {
-            return fieldName + " cannot be empty.";
-        }
-        try {
-            LocalDate date = LocalDate.parse(dateStr, DATE_FORMATTER);
-            LocalDate today = LocalDate.now();
-            LocalDate maxDate = today.plusYears(1);
-            if (date.isBefore(today)) {
-                return fieldName + " must be today or in the future.";
+        return message(checkDate(dateStr), fieldName);
+    }
+
+    public static String validateFlightNumber(String flightNo) {
+        return message(checkFlightNumber(flightNo), "Flight number");
+    }
+
+    public static String validateAirportCode(String code, String fieldName) {
+        return message(checkAirportCode(code), fieldName);
+    }
+
+    public static String validateDateTime(String dateTimeStr, String fieldName) {
+        return message(checkDateTime(dateTimeStr), fieldName);
+    }
+
+    public static String validateRouteName(String name) {
+        return message(checkRouteName(name), "Route name");
+    }
+
+    public static String validateCapacity(int capacity) {
+        return message(checkCapacity(capacity), "Capacity");
+    }
+
+    private static String message(ValidationError error, String fieldName) {
+        return error == null ? null : error.message(fieldName);
+    }
+
+    public static ValidationError checkNonEmpty(CharSequence value) {
+        if (value != null) {
+            // Same as value.trim().isEmpty(): trim() strips every char up to ' '
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > ' ') {
+                    return null;
+                }
             }
-            if (date.isAfter(maxDate)) {
-                return fieldName + " cannot be more than one year in the future.";
+        }
+        return ValidationError.EMPTY;
+    }
+
+    public static ValidationError checkEmail(CharSequence email) {
+        if (email == null) {
+            return ValidationError.INVALID_EMAIL;
+        }
+        int at = -1;
+        for (int i = 0; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c == '@' && at < 0) {
+                at = i;
+            } else if (at < 0 ? !in(c, EMAIL_LOCAL_LO, EMAIL_LOCAL_HI) : !in(c, EMAIL_DOMAIN_LO, EMAIL_DOMAIN_HI)) {
+                return ValidationError.INVALID_EMAIL;
             }
-            return null;
-        } catch (DateTimeParseException e) {
-            return "Invalid " + fieldName.toLowerCase() + " format. Use yyyy-MM-dd (e.g., 2025-12-31).";
         }
+        return at > 0 && at < email.length() - 1 ? null : ValidationError.INVALID_EMAIL;
     }
 
-    public static String validateFlightNumber(String flightNo) {
-        if (flightNo == null || !FLIGHT_NUMBER_PATTERN.matcher(flightNo).matches()) {
-            return "Flight number must be 2-6 alphanumeric characters (e.g., AA123).";
+    public static ValidationError checkPhone(CharSequence phoneNo) {
+        if (phoneNo == null || phoneNo.length() < 7 || phoneNo.length() > 15) {
+            return ValidationError.INVALID_PHONE;
+        }
+        for (int i = 0; i < phoneNo.length(); i++) {
+            if (!in(phoneNo.charAt(i), DIGITS_LO, 0)) {
+                return ValidationError.INVALID_PHONE;
+            }
         }
         return null;
     }
 
-    public static String validateAirportCode(String code, String fieldName) {
-        if (code == null || !AIRPORT_CODE_PATTERN.matcher(code).matches()) {
-            return fieldName + " must be a 3-letter uppercase code (e.g., JFK).";
+    public static ValidationError checkUUID(CharSequence uuid) {
+        return UUIDs.isValid(uuid) ? null : ValidationError.INVALID_UUID;
+    }
+
+    public static ValidationError checkFlightNumber(CharSequence flightNo) {
+        if (flightNo == null || flightNo.length() < 2 || flightNo.length() > 6) {
+            return ValidationError.INVALID_FLIGHT_NUMBER;
+        }
+        for (int i = 0; i < flightNo.length(); i++) {
+            if (!in(flightNo.charAt(i), ALNUM_LO, ALNUM_HI)) {
+                return ValidationError.INVALID_FLIGHT_NUMBER;
+            }
         }
         return null;
     }
 
-    public static String validateDateTime(String dateTimeStr, String fieldName) {
-        if (dateTimeStr == null || dateTimeStr.trim().isEmpty()) {
-            return fieldName + " cannot be empty.";
-        }
-        try {
-            LocalDateTime dateTime = LocalDateTime.parse(dateTimeStr, DATETIME_FORMATTER);
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime maxDateTime = now.plusYears(1);
-            if (dateTime.isBefore(now)) {
-                return fieldName + " must be now or in the future.";
+    public static ValidationError checkAirportCode(CharSequence code) {
+        return code != null && code.length() == 3 && upper(code, 0, 3) ? null : ValidationError.INVALID_AIRPORT_CODE;
+    }
+
+    public static ValidationError checkRouteName(CharSequence name) {
+        return name != null && name.length() == 7 && upper(name, 0, 3) && name.charAt(3) == '-' && upper(name, 4, 7)
+                ? null : ValidationError.INVALID_ROUTE_NAME;
+    }
+
+    public static ValidationError checkCapacity(int capacity) {
+        return capacity >= 1 && capacity <= Flight.MAX_CAPACITY ? null : ValidationError.INVALID_CAPACITY;
+    }
+
+    /**
+     * Checks a {@code yyyy-MM-dd} date that must fall between today and one year from today.
+     * Like the formatter's smart resolution, days 29-31 beyond the end of a month mean its last day.
+     */
+    public static ValidationError checkDate(CharSequence value) {
+        return checkDate(value, ValidationContext.current());
+    }
+
+    public static ValidationError checkDate(CharSequence value, ValidationContext context) {
+        if (checkNonEmpty(value) != null) {
+            return ValidationError.EMPTY;
+        }
+        long epochDay = value.length() == 10 ? parseEpochDay(value) : Long.MIN_VALUE;
+        if (epochDay == Long.MIN_VALUE) {
+            return ValidationError.INVALID_DATE_FORMAT;
+        }
+        return context.checkEpochDay(epochDay);
+    }
+
+    /**
+     * Checks a {@code yyyy-MM-dd HH:mm} date-time that must fall between now and one year from now.
+     */
+    public static ValidationError checkDateTime(CharSequence value) {
+        return checkDateTime(value, ValidationContext.current());
+    }
+
+    public static ValidationError checkDateTime(CharSequence value, ValidationContext context) {
+        if (checkNonEmpty(value) != null) {
+            return ValidationError.EMPTY;
+        }
+        long minutes = parseLocalMinutes(value);
+        if (minutes == Long.MIN_VALUE) {
+            return ValidationError.INVALID_DATETIME_FORMAT;
+        }
+        return context.checkLocalMillis(minutes * MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * Validates an already parsed date without formatting it back to text.
+     * @param date The date; null is reported as empty.
+     * @param fieldName The field name used in the message.
+     * @param context The moment to validate against, sampled once per batch.
+     * @return The error message, or null if the date is valid.
+     */
+    public static String validateDate(LocalDate date, String fieldName, ValidationContext context) {
+        return message(context.checkDate(date), fieldName);
+    }
+
+    /**
+     * Validates an already parsed date-time without formatting it back to text.
+     * @param dateTime The date-time; null is reported as empty.
+     * @param fieldName The field name used in the message.
+     * @param context The moment to validate against, sampled once per batch.
+     * @return The error message, or null if the date-time is valid.
+     */
+    public static String validateDateTime(LocalDateTime dateTime, String fieldName, ValidationContext context) {
+        return message(context.checkDateTime(dateTime), fieldName);
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date with the same result as {@code LocalDate.parse(value, DATE_FORMATTER)}.
+     * @param value The text.
+     * @return The date, or null if the text is malformed.
+     */
+    public static LocalDate parseDate(CharSequence value) {
+        long epochDay = value != null && value.length() == 10 ? parseEpochDay(value) : Long.MIN_VALUE;
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd HH:mm} date-time with the same result as
+     * {@code LocalDateTime.parse(value, DATETIME_FORMATTER)}.
+     * @param value The text.
+     * @return The date-time, or null if the text is malformed.
+     */
+    public static LocalDateTime parseDateTime(CharSequence value) {
+        long minutes = parseLocalMinutes(value);
+        return minutes == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Parses an optionally signed decimal int with the same result as {@code Integer.parseInt}, without throwing.
+     * @param value The text.
+     * @return The number, or null if the text is not a whole number in int range.
+     */
+    public static Integer parseInt(CharSequence value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        char sign = value.charAt(0);
+        int start = sign == '-' || sign == '+' ? 1 : 0;
+        if (start == value.length()) {
+            return null;
+        }
+        long result = 0;
+        for (int i = start; i < value.length(); i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            result = result * 10 + digit;
+            if (digit < 0 || result > 1L + Integer.MAX_VALUE) {
+                return null;
             }
-            if (dateTime.isAfter(maxDateTime)) {
-                return fieldName + " cannot be more than one year in the future.";
+        }
+        if (sign == '-') {
+            result = -result;
+        }
+        return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? null : (int) result;
+    }
+
+    // Parses yyyy-MM-dd HH:mm into minutes since 1970-01-01T00:00 local time, or Long.MIN_VALUE if it is malformed
+    private static long parseLocalMinutes(CharSequence value) {
+        if (value == null || value.length() != 16 || value.charAt(10) != ' ' || value.charAt(13) != ':') {
+            return Long.MIN_VALUE;
+        }
+        long epochDay = parseEpochDay(value);
+        int hour = twoDigits(value, 11);
+        int minute = twoDigits(value, 14);
+        // 24:00 is accepted as midnight of the next day, as in smart resolution
+        if (epochDay == Long.MIN_VALUE || hour < 0 || minute < 0 || minute > 59
+                || hour > 24 || (hour == 24 && minute != 0)) {
+            return Long.MIN_VALUE;
+        }
+        return (epochDay * 24 + hour) * 60 + minute;
+    }
+
+    // Parses the yyyy-MM-dd prefix into an epoch day, or Long.MIN_VALUE if it is malformed
+    private static long parseEpochDay(CharSequence value) {
+        if (value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return Long.MIN_VALUE;
+        }
+        int high = twoDigits(value, 0);
+        int low = twoDigits(value, 2);
+        int month = twoDigits(value, 5);
+        int day = twoDigits(value, 8);
+        if (high < 0 || low < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return Long.MIN_VALUE;
+        }
+        int year = high * 100 + low;
+        if (year == 0) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay for years 1-9999
+    private static long epochDay(long year, int month, int day) {
+        long total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total -= isLeap(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeap(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int twoDigits(CharSequence value, int index) {
+        int tens = value.charAt(index) - '0';
+        int ones = value.charAt(index + 1) - '0';
+        if ((tens | ones) < 0 || tens > 9 || ones > 9) {
+            return -1;
+        }
+        return tens * 10 + ones;
+    }
+
+    private static boolean upper(CharSequence value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!in(value.charAt(i), 0, UPPER_HI)) {
+                return false;
             }
-            return null;
-        } catch (DateTimeParseException e) {
-            return "Invalid " + fieldName.toLowerCase() + " format. Use yyyy-MM-dd HH:mm (e.g., 2025-05-04 14:30).";
         }
+        return true;
     }
 
-    public static String validateRouteName(String name) {
-        if (name == null || !ROUTE_NAME_PATTERN.matcher(name).matches()) {
-            return "Route name must be in format XXX-YYY (e.g., JFK-LAX).";
+    private static boolean in(char c, long lo, long hi) {
+        if (c < 64) {
+            return (lo & 1L << c) != 0;
         }
-        return null;
+        return c < 128 && (hi & 1L << (c - 64)) != 0;
     }
-}
\ No newline at end of file
+}
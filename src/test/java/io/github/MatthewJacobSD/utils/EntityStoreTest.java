@@ -0,0 +1,116 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Customer;
+import io.github.MatthewJacobSD.models.Flight;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityStoreTest {
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 12, 1, 12, 0);
+
+    private static Flight flight(String id, String dep, String arr, LocalDateTime depTime) {
+        return new Flight(id, "AB123", dep, arr, depTime, depTime != null ? depTime.plusHours(3) : null,
+                UUID.randomUUID().toString(), 150);
+    }
+
+    @Test
+    void holdsFlightsInColumnsAndBuildsThemOnRead() {
+        EntityStore<Flight> store = EntityStore.of(Flight.class);
+        Flight flight = flight(UUID.randomUUID().toString(), "JFK", "LAX", NOON);
+        assertTrue(store.add(flight));
+        assertFalse(store.add(flight(flight.getId(), "SFO", "LAX", NOON)), "IDs are only stored once");
+
+        assertEquals(1, store.size());
+        assertEquals(1, store.flights().size());
+        Flight read = store.get(flight.getId());
+        assertNotSame(flight, read);
+        assertEquals(flight.getDepAirport(), read.getDepAirport());
+        assertEquals(flight.getDepTime(), read.getDepTime());
+        assertEquals(flight.getCapacity(), read.getCapacity());
+        assertNull(store.get(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void keepsFlightsItCannotEncodeInAMap() {
+        EntityStore<Flight> store = EntityStore.of(Flight.class);
+        String id = UUID.randomUUID().toString();
+        Flight upper = flight(id.toUpperCase(), "JFK", "LAX", NOON);
+        Flight lower = flight(id, "JFK", "LAX", NOON);
+        Flight seconds = flight(UUID.randomUUID().toString(), "JFK", "LAX", NOON.plusSeconds(30));
+        assertTrue(store.add(upper));
+        assertTrue(store.add(lower), "IDs differing in case are distinct");
+        assertTrue(store.add(seconds));
+
+        assertEquals(3, store.size());
+        assertEquals(1, store.flights().size());
+        assertSame(upper, store.get(upper.getId()));
+        assertSame(seconds, store.get(seconds.getId()));
+        assertEquals(lower.getId(), store.get(lower.getId()).getId());
+        assertEquals(3, store.toList().size());
+    }
+
+    @Test
+    void findsFlightsByAirportAndWindow() {
+        EntityStore<Flight> store = EntityStore.of(Flight.class);
+        store.add(flight(UUID.randomUUID().toString(), "JFK", "LAX", NOON));
+        store.add(flight(UUID.randomUUID().toString(), "JFK", "SFO", NOON.plusDays(1)));
+        store.add(flight(UUID.randomUUID().toString(), "BOS", "LAX", null));
+        // Not encodable, so it is matched from the map
+        store.add(flight(UUID.randomUUID().toString(), "JFK", "LAX", NOON.plusSeconds(30)));
+
+        assertEquals(3, count(store, "JFK", null, null, null));
+        assertEquals(3, count(store, null, "LAX", null, null));
+        assertEquals(4, count(store, null, null, null, null));
+        assertEquals(2, count(store, "JFK", "LAX", NOON, NOON.plusHours(1)));
+        assertEquals(1, count(store, "JFK", null, NOON.plusHours(1), null));
+        assertEquals(2, count(store, null, "LAX", null, NOON.plusHours(1)), "flights without a time need an open window");
+        assertEquals(0, count(store, "XXX", null, null, null));
+    }
+
+    @Test
+    void holdsBookingsOffHeapAndCountsThemByFlight() {
+        EntityStore<Booking> store = EntityStore.of(Booking.class);
+        String flightId = UUID.randomUUID().toString();
+        Booking booking = new Booking(UUID.randomUUID().toString(), LocalDate.of(2026, 1, 5),
+                UUID.randomUUID().toString(), flightId);
+        Booking unencoded = new Booking(UUID.randomUUID().toString().toUpperCase(), LocalDate.of(2026, 1, 5),
+                UUID.randomUUID().toString(), flightId);
+        assertTrue(store.add(booking));
+        assertTrue(store.add(unencoded));
+        assertFalse(store.add(booking));
+
+        assertEquals(1, store.bookings().size());
+        assertEquals(2, store.size());
+        assertEquals(booking.getDate(), store.get(booking.getId()).getDate());
+        assertSame(unencoded, store.get(unencoded.getId()));
+        List<String> flightIds = new ArrayList<>();
+        store.forEachBookedFlight(flightIds::add);
+        assertEquals(List.of(flightId, flightId), flightIds);
+    }
+
+    @Test
+    void keepsOtherTypesInAMap() {
+        EntityStore<Customer> store = EntityStore.of(Customer.class);
+        Customer customer = new Customer(UUID.randomUUID().toString(), "Ada", "Lovelace",
+                "ada@example.com", "+441234567890", "1 Main St");
+        assertTrue(store.add(customer));
+        assertFalse(store.add(customer));
+        assertNull(store.flights());
+        assertSame(customer, store.get(customer.getId()));
+        assertTrue(store.contains(customer.getId()));
+    }
+
+    private static int count(EntityStore<Flight> store, String dep, String arr, LocalDateTime from, LocalDateTime to) {
+        List<Flight> matches = new ArrayList<>();
+        store.forEachFlight(dep, arr, from, to, matches::add);
+        return matches.size();
+    }
+}
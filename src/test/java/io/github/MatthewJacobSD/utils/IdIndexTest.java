@@ -0,0 +1,105 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Customer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdIndexTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void returnsNullForMissingFile() throws Exception {
+        assertNull(IdIndex.open(dir.resolve("missing.csv").toString()));
+    }
+
+    @Test
+    void rebuildsStaleIndex() throws Exception {
+        Path csv = dir.resolve("customers.csv");
+        List<Customer> customers = customers(50);
+        Files.writeString(csv, CSVHandler.toCSV(customers));
+
+        IdIndex index = IdIndex.open(csv.toString());
+        assertEquals(50, index.size());
+        customers.forEach(customer -> assertTrue(index.contains(customer.getId())));
+        assertFalse(index.contains(UUID.randomUUID().toString()));
+        assertFalse(index.contains("not-a-uuid"));
+        assertTrue(Files.exists(dir.resolve("customers.csv.idx")));
+
+        // Written behind the index's back, so its stamp no longer matches the file
+        Customer added = customers(1).getFirst();
+        String row = CSVHandler.toCSV(List.of(added)).lines().skip(1).findFirst().orElseThrow();
+        Files.writeString(csv, row + "\n", StandardOpenOption.APPEND);
+
+        IdIndex rebuilt = IdIndex.open(csv.toString());
+        assertEquals(51, rebuilt.size());
+        assertTrue(rebuilt.contains(added.getId()));
+    }
+
+    @Test
+    void logsAppendedIdsWithoutRebuilding() throws Exception {
+        Path csv = dir.resolve("appended.csv");
+        Files.writeString(csv, CSVHandler.toCSV(customers(10)));
+        assertEquals(10, IdIndex.open(csv.toString()).size());
+
+        List<Customer> added = customers(3);
+        new FileHandler(new ConsoleUI(new Scanner(""))).appendCSV(csv.toString(), added);
+        assertTrue(Files.exists(dir.resolve("appended.csv.idx.log")));
+
+        IdIndex index = IdIndex.open(csv.toString());
+        assertEquals(13, index.size());
+        assertTrue(index.containsAny(added.stream().map(Customer::getId).toList()));
+    }
+
+    @Test
+    void concurrentOpensOfStaleIndexAllSucceed() throws Exception {
+        Path csv = dir.resolve("concurrent.csv");
+        List<Customer> customers = customers(5000);
+        Files.writeString(csv, CSVHandler.toCSV(customers));
+        String last = customers.getLast().getId();
+
+        for (int round = 0; round < 5; round++) {
+            IdIndex.invalidate(csv.toString());
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<IdIndex>> opens = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 8; i++) {
+                    opens.add(executor.submit(() -> {
+                        start.await();
+                        return IdIndex.open(csv.toString());
+                    }));
+                }
+                start.countDown();
+                for (Future<IdIndex> open : opens) {
+                    IdIndex index = open.get();
+                    assertEquals(5000, index.size());
+                    assertTrue(index.contains(last));
+                }
+            }
+        }
+        assertFalse(Files.exists(dir.resolve("concurrent.csv.idx.tmp")));
+    }
+
+    static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(new Customer(UUID.randomUUID().toString(), "Ada", "Lovelace",
+                    "ada" + i + "@example.com", "0123456789", "1 Main St"));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,220 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Customer;
+import io.github.MatthewJacobSD.models.Flight;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+    @TempDir
+    Path dir;
+
+    @TestFactory
+    Stream<DynamicTest> recoversFromCrashAtEachCheckpointStep() {
+        return Stream.of(Journal.CheckpointStep.values()).map(step -> DynamicTest.dynamicTest(step.name(), () -> {
+            Path csv = dir.resolve(step.name().toLowerCase() + ".csv");
+            List<String> ids = new ArrayList<>();
+            try (Journal<Customer> journal = Journal.open(csv.toString(), Customer.class)) {
+                append(journal, ids, 2);
+            }
+
+            Journal<Customer> journal = Journal.open(csv.toString(), Customer.class);
+            crashAt(journal, step);
+            append(journal, ids, 3);
+            assertThrows(IOException.class, journal::close);
+
+            // Reopening recovers; nothing is lost and nothing is copied twice
+            Journal.open(csv.toString(), Customer.class).close();
+            assertEquals(ids, readIds(csv));
+            assertFalse(Journal.exists(csv.toString()));
+        }));
+    }
+
+    @Test
+    void dropsTornTailOnOpen() throws Exception {
+        Path csv = dir.resolve("customers.csv");
+        List<String> ids = new ArrayList<>();
+        Journal<Customer> journal = Journal.open(csv.toString(), Customer.class);
+        crashAt(journal, Journal.CheckpointStep.STARTED);
+        append(journal, ids, 4);
+        assertThrows(IOException.class, journal::close);
+
+        // Half of a record header followed by garbage, as left by a crash mid-write
+        Path file = csv.resolveSibling("customers.csv.journal");
+        long intact = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 90, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (Journal<Customer> reopened = Journal.open(csv.toString(), Customer.class)) {
+            assertTrue(Files.size(file) <= intact);
+        }
+        assertEquals(ids, readIds(csv));
+    }
+
+    @Test
+    void dropsRecordWithBadChecksum() throws Exception {
+        Path csv = dir.resolve("corrupt.csv");
+        List<String> ids = new ArrayList<>();
+        Journal<Customer> journal = Journal.open(csv.toString(), Customer.class);
+        crashAt(journal, Journal.CheckpointStep.STARTED);
+        append(journal, ids, 3);
+        assertThrows(IOException.class, journal::close);
+
+        // Flip the last byte of the last record
+        Path file = csv.resolveSibling("corrupt.csv.journal");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        Journal.open(csv.toString(), Customer.class).close();
+        assertEquals(ids.subList(0, 2), readIds(csv));
+    }
+
+    @Test
+    void checkpointsInTheColumnOrderOfTheFile() throws Exception {
+        Path csv = dir.resolve("reordered.csv");
+        String first = UUID.randomUUID().toString();
+        Files.writeString(csv, "email,id,lastName,firstName,address,phoneNo\n"
+                + "bob@example.com," + first + ",Smith,Bob,2 Side St,0123456789\n");
+        List<String> ids = new ArrayList<>(List.of(first));
+        try (Journal<Customer> journal = Journal.open(csv.toString(), Customer.class)) {
+            append(journal, ids, 3);
+        }
+
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals("email,id,lastName,firstName,address,phoneNo", lines.get(0));
+        List<String> stored = new ArrayList<>();
+        try (Stream<Customer> customers = CSVHandler.streamStored(new CSVRecordReader(Files.newBufferedReader(csv)), Customer.class)) {
+            customers.forEach(customer -> {
+                stored.add(customer.getId());
+                assertTrue(customer.getEmail().endsWith("@example.com"), customer.toString());
+            });
+        }
+        assertEquals(ids, stored);
+        // The index was advanced with the IDs from the right column
+        IdIndex index = IdIndex.open(csv.toString());
+        assertNotNull(index);
+        assertTrue(index.containsAny(Set.of(ids.get(3))));
+    }
+
+    @Test
+    void addsColumnsMissingFromAnOlderFile() throws Exception {
+        Path csv = dir.resolve("flights.csv");
+        String old = UUID.randomUUID().toString();
+        String route = UUID.randomUUID().toString();
+        Files.writeString(csv, "id,flightNo,depAirport,arrAirport,depTime,arrTime,routeId\n"
+                + old + ",AA100,JFK,LAX,2027-01-01 10:00,2027-01-01 14:00," + route + "\n");
+        LocalDateTime departure = LocalDateTime.of(2027, 2, 1, 9, 0);
+        Flight added = new Flight(UUID.randomUUID().toString(), "BA200", "LHR", "JFK", departure,
+                departure.plusHours(8), route, 250);
+        try (Journal<Flight> journal = Journal.open(csv.toString(), Flight.class)) {
+            journal.append(added).join();
+        }
+
+        List<Flight> flights = new ArrayList<>();
+        try (Stream<Flight> stored = CSVHandler.streamStored(new CSVRecordReader(Files.newBufferedReader(csv)), Flight.class)) {
+            stored.forEach(flights::add);
+        }
+        assertEquals(2, flights.size());
+        assertEquals(old, flights.get(0).getId());
+        assertEquals("id,flightNo,depAirport,arrAirport,depTime,arrTime,routeId,capacity", Files.readAllLines(csv).get(0));
+        assertEquals(added.getId(), flights.get(1).getId());
+        assertEquals(250, flights.get(1).getCapacity());
+    }
+
+    @Test
+    void keepsRowsJournaledWhenTheHeaderDoesNotMatch() throws Exception {
+        Path csv = dir.resolve("foreign.csv");
+        Files.writeString(csv, "name,code\nJFK-LAX,1\n");
+        Journal<Customer> journal = Journal.open(csv.toString(), Customer.class);
+        append(journal, new ArrayList<>(), 2);
+        assertThrows(IOException.class, journal::close);
+
+        assertEquals(List.of("name,code", "JFK-LAX,1"), Files.readAllLines(csv));
+        assertTrue(Journal.exists(csv.toString()));
+    }
+
+    @Test
+    void checkpointsWhileAppendsKeepArriving() throws Exception {
+        Path csv = dir.resolve("busy.csv");
+        List<String> ids = new ArrayList<>();
+        try (Journal<Customer> journal = Journal.open(csv.toString(), Customer.class)) {
+            // Appends closer together than the idle timeout, for longer than the checkpoint interval
+            long deadline = System.nanoTime() + 2_000_000L * Journal.CHECKPOINT_INTERVAL_MILLIS;
+            while (!Files.exists(csv) && System.nanoTime() < deadline) {
+                append(journal, ids, 1);
+                Thread.sleep(Journal.CHECKPOINT_IDLE_MILLIS / 5);
+            }
+            assertTrue(Files.exists(csv), "no checkpoint before close");
+            assertFalse(readIds(csv).isEmpty());
+        }
+        assertEquals(ids, readIds(csv));
+    }
+
+    @Test
+    void knowsWhichIdsAreJournaledButNotCheckpointed() throws Exception {
+        Path csv = dir.resolve("pending.csv");
+        List<String> ids = new ArrayList<>();
+        Journal<Customer> journal = Journal.open(csv.toString(), Customer.class);
+        crashAt(journal, Journal.CheckpointStep.STARTED);
+        append(journal, ids, 2);
+        assertTrue(journal.containsAny(List.of(ids.get(1))));
+        assertFalse(journal.containsAny(List.of(UUID.randomUUID().toString())));
+        assertThrows(IOException.class, journal::close);
+        assertTrue(journal.containsAny(ids), "rows of a failed checkpoint stay journaled");
+
+        try (Journal<Customer> reopened = Journal.open(csv.toString(), Customer.class)) {
+            assertFalse(reopened.containsAny(ids));
+            assertTrue(IdIndex.open(csv.toString()).containsAny(ids));
+        }
+    }
+
+    // Fails the checkpoint at a step and every later one, so nothing runs after the "crash"
+    private static void crashAt(Journal<Customer> journal, Journal.CheckpointStep step) {
+        AtomicBoolean crashed = new AtomicBoolean();
+        journal.checkpointHook = reached -> {
+            if (crashed.get() || reached == step) {
+                crashed.set(true);
+                throw new IOException("Simulated crash at " + step);
+            }
+        };
+    }
+
+    private static void append(Journal<Customer> journal, List<String> ids, int count) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            writes.add(journal.append(new Customer(id, "Ada", "Lovelace", "ada@example.com", "0123456789", "1 Main St")));
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static List<String> readIds(Path csv) throws IOException {
+        List<String> lines = Files.readAllLines(csv);
+        List<String> ids = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            ids.add(CSVHandler.parseCSVLine(line)[0]);
+        }
+        Set<String> unique = new HashSet<>(ids);
+        assertEquals(ids.size(), unique.size(), "duplicate rows in " + csv);
+        return ids;
+    }
+}
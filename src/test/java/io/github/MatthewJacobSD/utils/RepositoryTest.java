@@ -0,0 +1,85 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Customer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositoryTest {
+    @TempDir
+    Path dir;
+
+    private final FileHandler fileHandler = new FileHandler(new ConsoleUI(new Scanner("")));
+
+    @Test
+    void concurrentFindByIdWhileAppending() throws Exception {
+        Path csv = dir.resolve("customers.csv");
+        List<Customer> stored = IdIndexTest.customers(2000);
+        Files.writeString(csv, CSVHandler.toCSV(stored));
+        Repository<Customer> repository = new Repository<>(fileHandler, csv.toString(), Customer.class);
+
+        int readers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(readers + 1)) {
+            // Each append makes the index stale for readers that have not seen it yet
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    repository.append(IdIndexTest.customers(5));
+                }
+                return null;
+            }));
+            for (int r = 0; r < readers; r++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50; i++) {
+                        Customer expected = stored.get(ThreadLocalRandom.current().nextInt(stored.size()));
+                        assertEquals(expected, repository.findById(expected.getId()));
+                        assertNull(repository.findById(UUID.randomUUID().toString()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+        assertEquals(2100, repository.loadAll().size());
+        assertEquals(2100, IdIndex.open(csv.toString()).size());
+    }
+
+    @Test
+    void readsRowsDatedInThePast() throws Exception {
+        Path csv = dir.resolve("bookings.csv");
+        Booking past = new Booking(UUID.randomUUID().toString(), LocalDate.now().minusYears(1),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        Booking today = new Booking(UUID.randomUUID().toString(), LocalDate.now(),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        Files.writeString(csv, CSVHandler.toCSV(List.of(past, today)));
+        Repository<Booking> repository = new Repository<>(fileHandler, csv.toString(), Booking.class);
+
+        assertEquals(List.of(past, today), repository.loadAll());
+        assertEquals(past.getDate(), repository.findById(past.getId()).getDate());
+
+        // Rewriting the file keeps its history
+        repository.saveAll(repository.loadAll());
+        assertEquals(List.of(past, today), repository.loadAll());
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.MatthewJacobSD.utils;
+
+import io.github.MatthewJacobSD.models.Booking;
+import io.github.MatthewJacobSD.models.Flight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeatInventoryTest {
+    private static final String FLIGHT = "FL1";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void neverOversellsUnderContention() throws Exception {
+        int capacity = 150;
+        int booked = 30;
+        SeatInventory seats = new SeatInventory(id -> FLIGHT.equals(id) ? capacity : -1, id -> booked);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> taken = ConcurrentHashMap.newKeySet();
+        AtomicLong duplicates = new AtomicLong();
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 50; i++) {
+                        SeatInventory.Hold hold = seats.book(FLIGHT);
+                        if (hold != null) {
+                            count++;
+                            if (!taken.add(hold.getSeat())) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(capacity - booked, total);
+        }
+        assertEquals(0, duplicates.get());
+        assertEquals(0, seats.available(FLIGHT));
+        assertNull(seats.hold(FLIGHT));
+    }
+
+    @Test
+    void expiredHoldsAreHandedOn() {
+        MutableClock clock = new MutableClock();
+        SeatInventory seats = new SeatInventory(id -> FLIGHT.equals(id) ? 2 : -1, id -> 0, clock);
+        SeatInventory.Hold first = seats.hold(FLIGHT, Duration.ofMinutes(5));
+        SeatInventory.Hold second = seats.hold(FLIGHT, Duration.ofMinutes(10));
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(seats.hold(FLIGHT), "flight is full while both holds are live");
+
+        clock.advance(Duration.ofMinutes(6));
+        assertEquals(1, seats.available(FLIGHT));
+        SeatInventory.Hold third = seats.hold(FLIGHT);
+        assertNotNull(third);
+        assertEquals(first.getSeat(), third.getSeat());
+        assertNull(seats.confirm(first), "an expired hold cannot be confirmed");
+        assertFalse(seats.release(first), "an expired hold no longer owns its seat");
+
+        SeatInventory.Hold confirmed = seats.confirm(second);
+        assertNotNull(confirmed);
+        clock.advance(Duration.ofDays(1));
+        // The confirmed seat never expires; the third hold did
+        assertEquals(1, seats.available(FLIGHT));
+        assertNull(seats.confirm(third));
+    }
+
+    @Test
+    void loadCountsPastBookingsAndChecksCapacity() throws Exception {
+        LocalDateTime departure = LocalDateTime.now().plusDays(10).withNano(0).withSecond(0);
+        Flight full = new Flight(UUID.randomUUID().toString(), "BA123", "LHR", "JFK", departure,
+                departure.plusHours(8), UUID.randomUUID().toString(), 2);
+        Flight oversized = new Flight(UUID.randomUUID().toString(), "BA124", "LHR", "JFK", departure,
+                departure.plusHours(8), UUID.randomUUID().toString(), Flight.MAX_CAPACITY + 1);
+        Path flights = dir.resolve("flights.csv");
+        Path bookings = dir.resolve("bookings.csv");
+        Files.writeString(flights, CSVHandler.toCSV(List.of(full, oversized)));
+        // Bookings are dated the day they were made, so these are in the past
+        LocalDate made = LocalDate.now().minusDays(30);
+        Files.writeString(bookings, CSVHandler.toCSV(List.of(
+                new Booking(UUID.randomUUID().toString(), made, UUID.randomUUID().toString(), full.getId()),
+                new Booking(UUID.randomUUID().toString(), made, UUID.randomUUID().toString(), full.getId()))));
+
+        SeatInventory seats = SeatInventory.load(flights.toString(), bookings.toString());
+        assertEquals(2, seats.capacity(full.getId()));
+        assertEquals(0, seats.available(full.getId()));
+        assertNull(seats.hold(full.getId()));
+        assertEquals(-1, seats.capacity(oversized.getId()));
+    }
+
+    @Test
+    void seatNumbersAreDistinct() {
+        SeatInventory seats = new SeatInventory(id -> 70, id -> 0);
+        Set<Integer> numbers = new HashSet<>();
+        for (SeatInventory.Hold hold; (hold = seats.book(FLIGHT)) != null; ) {
+            assertTrue(numbers.add(hold.getSeat()));
+            assertTrue(hold.getSeat() >= 1 && hold.getSeat() <= 70);
+        }
+        assertEquals(70, numbers.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2030-01-01T00:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
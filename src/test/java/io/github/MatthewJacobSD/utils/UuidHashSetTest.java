@@ -0,0 +1,97 @@
+package io.github.MatthewJacobSD.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidHashSetTest {
+    @Test
+    void probesPastCollidingKeys() {
+        UuidHashSet set = new UuidHashSet(4);
+        long memory = set.memoryBytes();
+        // Keys whose home slot is the same, so each one probes past the ones before it
+        List<long[]> colliding = new ArrayList<>();
+        int home = UuidHashSet.hash(1, 1) & 7;
+        for (long lsb = 1; colliding.size() < 5; lsb++) {
+            if ((UuidHashSet.hash(1, lsb) & 7) == home) {
+                colliding.add(new long[]{1, lsb});
+            }
+        }
+        for (long[] key : colliding) {
+            assertTrue(set.add(key[0], key[1]));
+        }
+        for (long[] key : colliding) {
+            assertTrue(set.contains(key[0], key[1]));
+            assertFalse(set.add(key[0], key[1]));
+        }
+        assertEquals(5, set.size());
+        assertEquals(memory, set.memoryBytes(), "five keys fit in a table sized for four");
+        assertFalse(set.contains(2, 1));
+    }
+
+    @Test
+    void resizesWithoutLosingKeys() {
+        UuidHashSet set = new UuidHashSet();
+        Random random = new Random(42);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            added.add(uuid);
+            assertTrue(set.add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        }
+        assertEquals(added.size(), set.size());
+        for (UUID uuid : added) {
+            assertTrue(set.contains(uuid.toString()));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(set.contains(random.nextLong(), random.nextLong()));
+        }
+        // 100k keys at a load factor of at most 0.75 need 2^18 slots of 16 bytes
+        assertEquals((1L << 18) * 16, set.memoryBytes());
+    }
+
+    @Test
+    void tracksNilUuidSeparately() {
+        UuidHashSet set = new UuidHashSet();
+        String nil = new UUID(0, 0).toString();
+        assertFalse(set.contains(nil));
+        assertTrue(set.add(nil));
+        assertFalse(set.add(0, 0));
+        assertTrue(set.contains(0, 0));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void acceptsOnlyUuidStrings() {
+        UuidHashSet set = new UuidHashSet();
+        String id = UUID.randomUUID().toString();
+        assertTrue(set.add(id.toUpperCase()));
+        assertTrue(set.contains(id));
+        assertFalse(set.add(id));
+        assertFalse(set.add("not-a-uuid"));
+        assertFalse(set.add(null));
+        assertFalse(set.contains("not-a-uuid"));
+        assertFalse(set.contains(null));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void bloomFilterKeepsEveryMember() {
+        UuidHashSet set = new UuidHashSet();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(UUID.randomUUID().toString());
+            set.add(ids.getLast());
+        }
+        set.withBloomFilter(0.01);
+        String later = UUID.randomUUID().toString();
+        set.add(later);
+        ids.add(later);
+        ids.forEach(id -> assertTrue(set.contains(id)));
+    }
+}